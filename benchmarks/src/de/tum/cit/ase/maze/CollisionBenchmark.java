@@ -0,0 +1,56 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.math.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the collision check the player runs on every movement, with character-sized bounds at random positions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CollisionBenchmark {
+    private static final int POSITIONS = 1024;
+
+    @Param({"level-1", "level-5"})
+    public String level;
+
+    private Maze maze;
+    private Rectangle[] bounds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        maze = new Maze(MazeFixtures.level(level));
+        Random random = new Random(42);
+        float width = maze.getWidth() * 16;
+        float height = maze.getHeight() * 16;
+        bounds = new Rectangle[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            bounds[i] = new Rectangle(random.nextFloat() * (width - 12), random.nextFloat() * (height - 12), 10, 10);
+        }
+    }
+
+    @Benchmark
+    public int checkCollision() {
+        Rectangle rectangle = bounds[next];
+        next = (next + 1) % POSITIONS;
+        return maze.checkCollision(rectangle, next % 2 == 0);
+    }
+}
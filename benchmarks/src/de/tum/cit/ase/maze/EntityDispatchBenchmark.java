@@ -0,0 +1,161 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the per-frame passes over the maze elements of a level: advancing the animated tiles, visiting the keys
+ * and chests, and checking the player against every enemy. The instanceof chain walks one array holding every
+ * element, walls included, as the game screen did before the {@link EntityRegistry}; the buckets variants only
+ * walk the arrays of the kinds they act on, once for the whole level and once for a camera-sized view.
+ * Drawing itself needs a GL context and is left out; the elements' textures are consumed instead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EntityDispatchBenchmark {
+    private static final float DELTA = 1 / 60f;
+    private static final int TILE_SIZE = 16;
+    private static final float VIEW_WIDTH = 1280 * 0.35f; // The view of the game screen at its default zoom
+    private static final float VIEW_HEIGHT = 720 * 0.35f;
+
+    @Param({"level-4"})
+    public String level;
+
+    private Array<MazeElement> elements;
+    private EntityRegistry entities;
+    private Rectangle player;
+    private final Array<AnimatedElement> visibleTiles = new Array<>(false, 256);
+    private final Array<Key> visibleKeys = new Array<>(false, 4);
+    private final Array<Chest> visibleChests = new Array<>(false, 16);
+    private float viewMinX;
+    private float viewMinY;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Maze maze = new Maze(MazeFixtures.level(level));
+        TextureRegion frame = new TextureRegion(); // Never drawn, no texture needed
+        Animation<TextureRegion> animation = new Animation<>(0.1f, frame, frame, frame);
+        Animation<TextureRegion>[] enemyAnimations = new Animation[] {animation, animation, animation, animation};
+
+        LevelData data = LevelData.of(maze);
+        elements = new Array<>();
+        entities = new EntityRegistry(maze.getWidth(), maze.getHeight(), TILE_SIZE);
+        for (int i = 0; i < data.getSpawnCount(); i++) {
+            int x = data.getSpawnX(i) * TILE_SIZE;
+            int y = data.getSpawnY(i) * TILE_SIZE;
+            MazeElement element = switch (data.getSpawnType(i)) {
+                case 0 -> new Wall(frame, x, y);
+                case 1 -> new EntryPoint(frame, x, y);
+                case 2 -> new Exit(frame, x, y);
+                case 3 -> new Trap(animation, x, y);
+                case 4 -> new Enemy(frame, x, y, null, maze, enemyAnimations, animation);
+                case 5 -> new Key(animation, x, y);
+                case 6 -> new Lava(animation, x, y);
+                case 7 -> new Chest(frame, frame, x, y, null, null);
+                default -> null;
+            };
+            if (element != null) {
+                elements.add(element);
+                if (data.getSpawnType(i) > 2) {
+                    entities.add(element); // The game creates no elements for walls, the entry and the exit
+                }
+            }
+        }
+        // Outside the maze, so no enemy overlaps the player and every pass checks all of them
+        player = new Rectangle(-TILE_SIZE, -TILE_SIZE, 8, 4);
+        viewMinX = (maze.getWidth() * TILE_SIZE - VIEW_WIDTH) / 2;
+        viewMinY = (maze.getHeight() * TILE_SIZE - VIEW_HEIGHT) / 2;
+    }
+
+    @Benchmark
+    public int instanceofChain(Blackhole blackhole) {
+        for (MazeElement element : elements) {
+            if (element instanceof Trap trap) {
+                trap.update(DELTA);
+                blackhole.consume(trap.getTexture());
+            } else if (element instanceof Lava lava) {
+                lava.update(DELTA);
+                blackhole.consume(lava.getTexture());
+            } else if (element instanceof Key key) {
+                key.update(DELTA);
+                blackhole.consume(key.getTexture());
+            } else if (element instanceof Chest chest) {
+                blackhole.consume(chest.getTexture());
+            }
+        }
+        int hits = 0;
+        for (MazeElement element : elements) {
+            if (element instanceof Enemy enemy && player.overlaps(enemy.getBounds())) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int buckets(Blackhole blackhole) {
+        for (AnimatedElement tile : entities.getAnimatedTiles()) {
+            tile.update(DELTA);
+            blackhole.consume(tile.getTexture());
+        }
+        for (Key key : entities.getKeys()) {
+            key.update(DELTA);
+            blackhole.consume(key.getTexture());
+        }
+        for (Chest chest : entities.getChests()) {
+            blackhole.consume(chest.getTexture());
+        }
+        return enemyHits();
+    }
+
+    @Benchmark
+    public int bucketsInView(Blackhole blackhole) {
+        float maxX = viewMinX + VIEW_WIDTH;
+        float maxY = viewMinY + VIEW_HEIGHT;
+        visibleTiles.clear();
+        entities.collectAnimatedTiles(viewMinX, viewMinY, maxX, maxY, visibleTiles);
+        for (AnimatedElement tile : visibleTiles) {
+            tile.update(DELTA);
+            blackhole.consume(tile.getTexture());
+        }
+        visibleKeys.clear();
+        entities.collectKeys(viewMinX, viewMinY, maxX, maxY, visibleKeys);
+        for (Key key : visibleKeys) {
+            key.update(DELTA);
+            blackhole.consume(key.getTexture());
+        }
+        visibleChests.clear();
+        entities.collectChests(viewMinX, viewMinY, maxX, maxY, visibleChests);
+        for (Chest chest : visibleChests) {
+            blackhole.consume(chest.getTexture());
+        }
+        return enemyHits(); // Enemies are checked wherever they are
+    }
+
+    private int enemyHits() {
+        int hits = 0;
+        for (Enemy enemy : entities.getEnemies()) {
+            if (player.overlaps(enemy.getBounds())) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,77 @@
+package de.tum.cit.ase.maze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures path searches on generated corridor mazes from 100x100 up to 4000x4000 tiles.
+ * The corner-to-corner search crosses the whole maze; the random searches cover typical chases.
+ * Only complete paths are comparable, so the partial hierarchical and corridor pathfinders are left out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GeneratedMazePathfindingBenchmark {
+    private static final int QUERIES = 64;
+
+    @Param({"100", "500", "1000", "2000", "4000"})
+    public int size;
+
+    @Param({"astar", "jps"})
+    public String pathfinder;
+
+    private Pathfinder search;
+    private int[] corners; // The walkable tiles closest to the lower left and upper right corner
+    private int[] queries;
+    private int[] path;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        int[][] layout = MazeFixtures.generate(size, size, 42);
+        search = MazeFixtures.pathfinder(pathfinder, layout);
+        WalkabilityGrid grid = new Maze(layout, PathfinderType.ASTAR).getWalkabilityGrid();
+        queries = MazeFixtures.queries(grid, QUERIES, 42);
+        corners = new int[4];
+        for (int diagonal = 0; diagonal < 2 * size && (corners[0] == 0 || corners[2] == 0); diagonal++) {
+            for (int x = Math.max(0, diagonal - size + 1); x <= Math.min(diagonal, size - 1); x++) {
+                int y = diagonal - x;
+                if (corners[0] == 0 && grid.isWalkable(x, y)) {
+                    corners[0] = x;
+                    corners[1] = y;
+                }
+                if (corners[2] == 0 && grid.isWalkable(size - 1 - x, size - 1 - y)) {
+                    corners[2] = size - 1 - x;
+                    corners[3] = size - 1 - y;
+                }
+            }
+        }
+        path = new int[size * size];
+    }
+
+    @Benchmark
+    public int cornerToCorner() {
+        return search.findPath(corners[0], corners[1], corners[2], corners[3], path);
+    }
+
+    @Benchmark
+    public int randomPair() {
+        int i = next;
+        next = (next + 4) % queries.length;
+        return search.findPath(queries[i], queries[i + 1], queries[i + 2], queries[i + 3], path);
+    }
+}
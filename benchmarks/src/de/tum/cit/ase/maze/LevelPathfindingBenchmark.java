@@ -0,0 +1,58 @@
+package de.tum.cit.ase.maze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures path searches between random walkable tiles of the shipped levels.
+ * Every invocation answers the next of a fixed set of queries, so all pathfinders get the same queries.
+ * A* and JPS return complete paths, while HPA* and the corridor pathfinder only return the first part of the
+ * path and are searched again as the enemy walks it. Their scores are the cost of one search call, not of a
+ * complete route, and are not directly comparable with A* and JPS.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LevelPathfindingBenchmark {
+    private static final int QUERIES = 256;
+
+    @Param({"level-1", "level-2", "level-3", "level-4", "level-5"})
+    public String level;
+
+    @Param({"astar", "jps", "hpa", "corridor"})
+    public String pathfinder;
+
+    private Pathfinder search;
+    private int[] queries;
+    private int[] path;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Maze maze = new Maze(MazeFixtures.level(level));
+        search = MazeFixtures.pathfinder(pathfinder, MazeFixtures.layout(maze));
+        queries = MazeFixtures.queries(maze.getWalkabilityGrid(), QUERIES, 42);
+        path = new int[maze.getWidth() * maze.getHeight()];
+    }
+
+    @Benchmark
+    public int findPath() {
+        int i = next;
+        next = (next + 4) % queries.length;
+        return search.findPath(queries[i], queries[i + 1], queries[i + 2], queries[i + 3], path);
+    }
+}
@@ -0,0 +1,159 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Levels and generated mazes shared by the benchmarks. Everything is seeded, so every run measures the same work.
+ */
+public final class MazeFixtures {
+    private MazeFixtures() {
+    }
+
+    /**
+     * Opens one of the shipped levels. The benchmarks run from the project directory.
+     *
+     * @param name The name of the level without extension, for example "level-1".
+     * @return The handle to the level file.
+     */
+    public static FileHandle level(String name) {
+        return new FileHandle(new File("maps", name + ".properties"));
+    }
+
+    /**
+     * Generates a perfect maze of one-tile corridors with a depth-first search, like the shipped levels but of any size.
+     * The entry lies in the lower left corner, the exit in the upper right corner and the key in between.
+     *
+     * @param width The width of the maze in tiles; an even value loses its last column to the outer wall.
+     * @param height The height of the maze in tiles; an even value loses its last row to the outer wall.
+     * @param seed The seed of the random generator.
+     * @return The layout, indexed as layout[x][y].
+     */
+    public static int[][] generate(int width, int height, long seed) {
+        int[][] layout = new int[width][height]; // All walls
+        int cellsX = (width - 1) / 2;
+        int cellsY = (height - 1) / 2;
+        boolean[] visited = new boolean[cellsX * cellsY];
+        int[] stack = new int[cellsX * cellsY];
+        int[] directions = {0, 1, 2, 3};
+        Random random = new Random(seed);
+
+        int size = 0;
+        stack[size++] = 0;
+        visited[0] = true;
+        layout[1][1] = -1;
+        while (size > 0) {
+            int cell = stack[size - 1];
+            int cx = cell % cellsX;
+            int cy = cell / cellsX;
+            shuffle(directions, random);
+            boolean moved = false;
+            for (int direction : directions) {
+                int nx = cx + (direction == 0 ? 1 : direction == 1 ? -1 : 0);
+                int ny = cy + (direction == 2 ? 1 : direction == 3 ? -1 : 0);
+                if (nx < 0 || ny < 0 || nx >= cellsX || ny >= cellsY || visited[ny * cellsX + nx]) {
+                    continue;
+                }
+                visited[ny * cellsX + nx] = true;
+                layout[cx * 2 + 1 + (nx - cx)][cy * 2 + 1 + (ny - cy)] = -1; // The wall between the cells
+                layout[nx * 2 + 1][ny * 2 + 1] = -1;
+                stack[size++] = ny * cellsX + nx;
+                moved = true;
+                break;
+            }
+            if (!moved) {
+                size--;
+            }
+        }
+
+        layout[1][1] = 1;
+        layout[cellsX * 2 - 1][cellsY * 2 - 1] = 2;
+        layout[(cellsX / 2) * 2 + 1][(cellsY / 2) * 2 + 1] = 5;
+        return layout;
+    }
+
+    /**
+     * Writes a layout as a level file in the .properties format, one "x,y=type" line per tile.
+     *
+     * @param layout The layout to write, indexed as layout[x][y].
+     * @param file The file to write to.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(int[][] layout, File file) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            for (int x = 0; x < layout.length; x++) {
+                for (int y = 0; y < layout[x].length; y++) {
+                    writer.write(x + "," + y + "=" + layout[x][y]);
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+
+    /**
+     * Picks random pairs of walkable tiles as pathfinding queries.
+     *
+     * @param grid The walkability grid to pick from.
+     * @param count The number of queries.
+     * @param seed The seed of the random generator.
+     * @return The queries as {startX, startY, endX, endY}, repeated count times.
+     */
+    public static int[] queries(WalkabilityGrid grid, int count, long seed) {
+        Random random = new Random(seed);
+        int[] queries = new int[count * 4];
+        for (int i = 0; i < queries.length; i += 2) {
+            int x;
+            int y;
+            do {
+                x = random.nextInt(grid.getWidth());
+                y = random.nextInt(grid.getHeight());
+            } while (!grid.isWalkable(x, y));
+            queries[i] = x;
+            queries[i + 1] = y;
+        }
+        return queries;
+    }
+
+    /**
+     * Copies the tiles of a loaded maze into a layout, for example to search a shipped level with another pathfinder.
+     *
+     * @param maze The maze to copy.
+     * @return The layout, indexed as layout[x][y].
+     */
+    public static int[][] layout(Maze maze) {
+        int[][] layout = new int[maze.getWidth()][maze.getHeight()];
+        for (int x = 0; x < maze.getWidth(); x++) {
+            for (int y = 0; y < maze.getHeight(); y++) {
+                layout[x][y] = maze.getElementAt(x, y);
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Creates an uncached pathfinder of the given type over a layout, so the benchmarks measure the searches
+     * themselves and not the path cache.
+     *
+     * @param key The name of the pathfinder as written in level files, for example "jps".
+     * @param layout The layout to search, indexed as layout[x][y].
+     * @return The pathfinder.
+     */
+    public static Pathfinder pathfinder(String key, int[][] layout) {
+        Maze maze = new Maze(layout, PathfinderType.fromKey(key));
+        return maze.createPathfinder(maze.getWalkabilityGrid());
+    }
+}
@@ -0,0 +1,125 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.files.FileHandle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming {@link MazeParser} with the java.util.Properties loading it replaced and with the
+ * memory-mapped {@link BinaryMazeFile}, on a shipped level and on generated levels of up to 4 million tiles. Besides the time per load and the allocation rate of the
+ * GC profiler, every iteration prints the peak heap usage it reached.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgs = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MazeParsingBenchmark {
+    @Param({"level-4", "generated-500", "generated-2000"})
+    public String source;
+
+    private File file;
+    private FileHandle binaryFile;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        if (source.startsWith("generated-")) {
+            int size = Integer.parseInt(source.substring("generated-".length()));
+            file = File.createTempFile("maze-" + size + "-", ".properties");
+            file.deleteOnExit();
+            MazeFixtures.write(MazeFixtures.generate(size + 1, size + 1, 42), file);
+        } else {
+            file = MazeFixtures.level(source).file();
+        }
+        File binary = File.createTempFile("maze-", "." + BinaryMazeFile.EXTENSION);
+        binary.deleteOnExit();
+        MazeConverter.convert(file, binary);
+        binaryFile = new FileHandle(binary);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void printPeakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.println("Peak heap: " + peak / (1024 * 1024) + " MB");
+    }
+
+    @Benchmark
+    public byte[] streaming() throws IOException {
+        MazeParser parser = new MazeParser();
+        try (InputStream input = new FileInputStream(file)) {
+            parser.parse(input);
+        }
+        return parser.createTiles();
+    }
+
+    @Benchmark
+    public byte[] binary() throws IOException {
+        return BinaryMazeFile.read(binaryFile).createTiles();
+    }
+
+    /**
+     * The loading the maze used before the streaming parser: the whole file is read into a Properties table,
+     * whose keys are then split once to find the size of the maze and once more to fill the layout.
+     */
+    @Benchmark
+    public int[][] properties() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = new FileInputStream(file)) {
+            properties.load(input);
+        }
+        int width = 0;
+        int height = 0;
+        for (String key : properties.stringPropertyNames()) {
+            String[] coords = key.split(",");
+            width = Math.max(width, Integer.parseInt(coords[0]) + 1);
+            height = Math.max(height, Integer.parseInt(coords[1]) + 1);
+        }
+        int[][] layout = new int[width][height];
+        for (int[] column : layout) {
+            Arrays.fill(column, -1);
+        }
+        properties.forEach((key, value) -> {
+            String[] coords = ((String) key).split(",");
+            layout[Integer.parseInt(coords[0])][Integer.parseInt(coords[1])] = Integer.parseInt((String) value);
+        });
+        return layout;
+    }
+}
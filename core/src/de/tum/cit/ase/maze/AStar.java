@@ -1,29 +1,50 @@
 package de.tum.cit.ase.maze;
 
-import de.tum.cit.ase.maze.Node;
-
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 /**
  * Implements the A* search algorithm for finding the shortest path between two points on a grid.
+ * The open set is an indexed binary heap and the per-tile search state lives in primitive arrays
+ * that are reused between searches, so a search does not allocate once the pathfinder is created.
+ * The walkability grid is shared with the maze; only this scratch state belongs to the pathfinder.
+ * Tiles are addressed by their index y * width + x.
  */
 
-public class AStar {
-    private Node[][] grid;
-    private List<Node> openList;
-    private List<Node> closedList;
+public class AStar implements Pathfinder {
+    private static final int STEP_COST = 1; // uniform cost for each step in the four cardinal directions
+
+    private final WalkabilityGrid grid;
+    private final int width;
+    private final int height;
+
+    // Search state per tile, only valid where the stamp matches the current generation
+    private final int[] gCost;
+    private final int[] parent;
+    private final int[] openedStamp;
+    private final int[] closedStamp;
+    private int generation;
+
+    private final IndexedMinHeap openList;
+    private int[] pathBuffer;
 
     /**
      * Initializes a new instance of the AStar class with a specified grid.
      *
-     * @param grid The grid of nodes representing the search area.
+     * @param grid The walkability grid representing the search area.
      */
 
-    public AStar(Node[][] grid) {
+    public AStar(WalkabilityGrid grid) {
         this.grid = grid;
-        this.openList = new ArrayList<>();
-        this.closedList = new ArrayList<>();
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        int tiles = width * height;
+        this.gCost = new int[tiles];
+        this.parent = new int[tiles];
+        this.openedStamp = new int[tiles];
+        this.closedStamp = new int[tiles];
+        this.openList = new IndexedMinHeap(tiles);
+        this.pathBuffer = new int[64];
     }
 
     /**
@@ -37,117 +58,154 @@ public AStar(Node[][] grid) {
      */
 
     public List<Node> findPath(float startX, float startY, float endX, float endY) {
-        openList.clear();
-        closedList.clear();
+        int length = findPath((int) startX, (int) startY, (int) endX, (int) endY, pathBuffer);
+        if (length > pathBuffer.length) {
+            pathBuffer = new int[Integer.highestOneBit(length) << 1];
+            length = findPath((int) startX, (int) startY, (int) endX, (int) endY, pathBuffer);
+        }
+
+        List<Node> path = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            path.add(new Node(pathBuffer[i] % width, pathBuffer[i] / width, true));
+        }
+        return path;
+    }
+
+    /**
+     * Finds the shortest path from a start tile to an end tile and writes it into the given buffer.
+     * The path excludes the start tile and includes the end tile; each entry is a tile index y * width + x.
+     * If the buffer is too small, only the first out.length steps are written and the full length is still returned,
+     * so callers can grow their buffer and search again.
+     *
+     * @param startX The x-coordinate of the start tile.
+     * @param startY The y-coordinate of the start tile.
+     * @param endX The x-coordinate of the end tile.
+     * @param endY The y-coordinate of the end tile.
+     * @param out The buffer receiving the tile indices of the path.
+     * @return The number of steps in the path, or 0 if no path is found.
+     */
+    @Override
+    public int findPath(int startX, int startY, int endX, int endY, int[] out) {
+        if (!inBounds(startX, startY) || !inBounds(endX, endY)) {
+            return 0;
+        }
+        int start = startY * width + startX;
+        int end = endY * width + endX;
+        if (start == end) {
+            return 0;
+        }
 
-        Node startNode = grid[(int) startX][(int) startY];
-        Node endNode = grid[(int) endX][(int) endY];
+        nextGeneration();
+        openList.clear();
 
-        openList.add(startNode);
+        gCost[start] = 0;
+        parent[start] = -1;
+        openedStamp[start] = generation;
+        openList.insertOrUpdate(start, priority(0, heuristic(startX, startY, endX, endY)));
 
         while (!openList.isEmpty()) {
-            Node currentNode = openList.get(0);
-            for (int i = 1; i < openList.size(); i++) {
-                if (openList.get(i).getFCost() < currentNode.getFCost() ||
-                        openList.get(i).getFCost() == currentNode.getFCost() &&
-                                openList.get(i).hCost < currentNode.hCost) {
-                    currentNode = openList.get(i);
-                }
-            }
-
-            openList.remove(currentNode);
-            closedList.add(currentNode);
+            int current = openList.poll();
+            closedStamp[current] = generation;
 
-            if (currentNode == endNode) {
-                return retracePath(startNode, endNode);
+            if (current == end) {
+                return retracePath(start, end, out);
             }
 
-            for (Node neighbor : getNeighbors(currentNode)) {
-                if (!neighbor.walkable || closedList.contains(neighbor)) {
-                    continue;
-                }
-
-                float newMovementCostToNeighbor = currentNode.gCost + getDistance(currentNode, neighbor);
-                if (newMovementCostToNeighbor < neighbor.gCost || !openList.contains(neighbor)) {
-                    neighbor.gCost = newMovementCostToNeighbor;
-                    neighbor.hCost = getDistance(neighbor, endNode);
-                    neighbor.parent = currentNode;
-
-                    if (!openList.contains(neighbor)) {
-                        openList.add(neighbor);
-                    }
-                }
-            }
+            int currentX = current % width;
+            int currentY = current / width;
+            int newMovementCostToNeighbor = gCost[current] + STEP_COST;
+
+            // Visiting the four cardinal neighbours without allocating a neighbour list
+            if (currentX + 1 < width) relax(current, current + 1, currentX + 1, currentY, newMovementCostToNeighbor, endX, endY);
+            if (currentX > 0) relax(current, current - 1, currentX - 1, currentY, newMovementCostToNeighbor, endX, endY);
+            if (currentY + 1 < height) relax(current, current + width, currentX, currentY + 1, newMovementCostToNeighbor, endX, endY);
+            if (currentY > 0) relax(current, current - width, currentX, currentY - 1, newMovementCostToNeighbor, endX, endY);
         }
 
-        return new ArrayList<>(); // Return empty path if no path is found
+        return 0; // Return empty path if no path is found
     }
 
     /**
-     * Retraces the path from the end node to the start node.
-     *
-     * @param startNode The start node.
-     * @param endNode The end node.
-     * @return A list of nodes representing the path from the start node to the end node.
+     * Opens a neighbouring tile or lowers its cost if the current tile offers a cheaper way to reach it.
      */
-    private List<Node> retracePath(Node startNode, Node endNode) {
-        List<Node> path = new ArrayList<>();
-        Node currentNode = endNode;
-
-        while (currentNode != null && currentNode != startNode) {
-            path.add(currentNode);
-            currentNode = currentNode.parent;
+    private void relax(int current, int neighbor, int neighborX, int neighborY, int newMovementCostToNeighbor, int endX, int endY) {
+        if (closedStamp[neighbor] == generation || !grid.isWalkable(neighbor)) {
+            return;
         }
-
-        if (currentNode == null) {
-            return new ArrayList<>(); // Return empty path if no path is found
+        boolean opened = openedStamp[neighbor] == generation;
+        if (!opened || newMovementCostToNeighbor < gCost[neighbor]) {
+            gCost[neighbor] = newMovementCostToNeighbor;
+            parent[neighbor] = current;
+            openedStamp[neighbor] = generation;
+            int hCost = heuristic(neighborX, neighborY, endX, endY);
+            openList.insertOrUpdate(neighbor, priority(newMovementCostToNeighbor + hCost, hCost));
         }
-
-        Collections.reverse(path);
-        return path;
     }
+
     /**
-     * Gets the neighboring nodes of a given node that can be traversed.
+     * Retraces the path from the end tile to the start tile into the buffer.
      *
-     * @param node The node for which to find neighbors.
-     * @return A list of walkable neighbor nodes.
+     * @param start The start tile index.
+     * @param end The end tile index.
+     * @param out The buffer receiving the path.
+     * @return The number of steps in the path.
      */
-    private List<Node> getNeighbors(Node node) {
-        List<Node> neighbors = new ArrayList<>();
-
-        // Defining four directions
-        int[][] directions = {
-                {0, 1},  // Right
-                {0, -1}, // Left
-                {1, 0},  // Down
-                {-1, 0}  // Up
-        };
-
-        for (int[] dir : directions) {
-            int checkX = node.x + dir[0];
-            int checkY = node.y + dir[1];
-
-            if (checkX >= 0 && checkX < grid.length && checkY >= 0 && checkY < grid[0].length && grid[checkX][checkY].walkable) {
-                neighbors.add(grid[checkX][checkY]);
+    private int retracePath(int start, int end, int[] out) {
+        int length = 0;
+        for (int tile = end; tile != start; tile = parent[tile]) {
+            length++;
+        }
+
+        int index = length - 1;
+        for (int tile = end; tile != start; tile = parent[tile], index--) {
+            if (index < out.length) {
+                out[index] = tile;
             }
         }
+        return length;
+    }
 
-        return neighbors;
+    /**
+     * Starts a new search generation, which invalidates the state of all tiles without clearing the arrays.
+     */
+    private void nextGeneration() {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(openedStamp, 0);
+            Arrays.fill(closedStamp, 0);
+            generation = 1;
+        }
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /**
+     * Combines the f cost and the h cost into one heap priority, so that ties on f are broken by the lower h.
+     */
+    private static long priority(int fCost, int hCost) {
+        return ((long) fCost << 32) | hCost;
     }
 
     /**
-     * Calculates the distance between two nodes on the grid.
-     * The distance is based on the sum of the absolute differences in the x and y coordinates of the nodes,
-     * multiplied by a factor to represent the cost of moving from one node to another. This implementation
-     * assumes a uniform cost for each step in the four cardinal directions.
+     * Calculates the distance between two tiles on the grid.
+     * The distance is the sum of the absolute differences in the x and y coordinates,
+     * multiplied by the cost of a single step. This implementation assumes a uniform cost
+     * for each step in the four cardinal directions.
      *
-     * @param nodeA The first node.
-     * @param nodeB The second node.
-     * @return The calculated distance between nodeA and nodeB, representing the cost of moving from nodeA to nodeB.
+     * @return The estimated cost of moving from the first tile to the second tile.
      */
-    private float getDistance(Node nodeA, Node nodeB) {
-        int distX = Math.abs(nodeA.x - nodeB.x);
-        int distY = Math.abs(nodeA.y - nodeB.y);
+    private static int heuristic(int x1, int y1, int x2, int y2) {
+        return (Math.abs(x1 - x2) + Math.abs(y1 - y2)) * STEP_COST;
+    }
 
-        return (distX + distY) * 10; // assuming a cost of 10 for each step in cardinal directions
-    }}
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,39 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+/**
+ * Represents a maze element that stays on its tile and loops an animation, such as traps, lava and the key.
+ * The animation may be shared between elements; each element only keeps its own state time.
+ */
+public abstract class AnimatedElement extends MazeElement {
+    protected final Animation<TextureRegion> animation;
+    protected float stateTime;
+
+    /**
+     * Constructs an animated element showing the first frame of its animation.
+     *
+     * @param animation The animation to be looped.
+     * @param x The x-coordinate of the element's position.
+     * @param y The y-coordinate of the element's position.
+     * @param width The width of the element.
+     * @param height The height of the element.
+     */
+    public AnimatedElement(Animation<TextureRegion> animation, float x, float y, float width, float height) {
+        super(animation.getKeyFrame(0), x, y, width, height);
+        this.animation = animation;
+        this.stateTime = 0f;
+    }
+
+    /**
+     * Updates the animation frame based on the time elapsed. This method should be called in each frame
+     * the element is drawn.
+     *
+     * @param delta The time in seconds since the last update.
+     */
+    public void update(float delta) {
+        stateTime += delta; // Update the stateTime
+        setTexture(animation.getKeyFrame(stateTime, true));
+    }
+}
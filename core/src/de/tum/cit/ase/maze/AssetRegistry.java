@@ -0,0 +1,154 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads every texture of the game once and shares the animations cut from them. Maze elements of the same kind
+ * all refer to the same {@link Animation} and only keep their own state time, so a level with hundreds of lava
+ * tiles uploads the lava sheet to the GPU a single time.
+ * The shared animations must not be modified and must not use {@link Animation.PlayMode#LOOP_RANDOM},
+ * which keeps state in the animation.
+ * <p>
+ * The sprite sheets are packed into {@link #ATLAS} by the desktop:packTextures Gradle task, so everything cut from
+ * them shares one texture and a frame of the game world renders without flushing the sprite batch between sheets.
+ * Without the atlas, for example when the game is started without Gradle, every sheet is loaded as its own texture.
+ */
+public class AssetRegistry implements Disposable {
+    public static final String ATLAS = "atlas/sprites.atlas";
+
+    private final TextureAtlas atlas;
+    private final Map<String, Texture> textures = new HashMap<>();
+    private final Map<String, TextureRegion> sheets = new HashMap<>();
+    private final Map<String, Animation<TextureRegion>> animations = new HashMap<>();
+
+    /**
+     * Creates the registry, loading the packed atlas of the sprite sheets if it exists.
+     */
+    public AssetRegistry() {
+        FileHandle file = Gdx.files.internal(ATLAS);
+        if (file.exists()) {
+            atlas = new TextureAtlas(file);
+        } else {
+            atlas = null;
+            Gdx.app.log("AssetRegistry", ATLAS + " not found, run desktop:packTextures; loading sprite sheets separately");
+        }
+    }
+
+    /**
+     * Gets the region of a whole sprite sheet, from the atlas if it holds the sheet, otherwise from its own texture.
+     * Regions cut from it must use coordinates relative to the sheet, see {@link TextureRegion#TextureRegion(TextureRegion, int, int, int, int)}.
+     *
+     * @param path The path of the sprite sheet in the assets.
+     * @return The shared region of the sheet.
+     */
+    public TextureRegion getSheet(String path) {
+        TextureRegion sheet = sheets.get(path);
+        if (sheet == null) {
+            if (atlas != null) {
+                sheet = atlas.findRegion(path.endsWith(".png") ? path.substring(0, path.length() - 4) : path);
+            }
+            if (sheet == null) {
+                sheet = new TextureRegion(getTexture(path));
+            }
+            sheets.put(path, sheet);
+        }
+        return sheet;
+    }
+
+    /**
+     * Gets a texture of its own, loading it from the internal files on first use.
+     * Prefer {@link #getSheet(String)} for sprite sheets, which are drawn from the atlas.
+     *
+     * @param path The path of the image in the assets.
+     * @return The shared texture.
+     */
+    public Texture getTexture(String path) {
+        Texture texture = textures.get(path);
+        if (texture == null) {
+            texture = new Texture(Gdx.files.internal(path));
+            textures.put(path, texture);
+        }
+        return texture;
+    }
+
+    /**
+     * Gets an animation whose frames lie next to each other in one row of a sprite sheet, creating it on first use.
+     *
+     * @param path The path of the sprite sheet in the assets.
+     * @param x The x-coordinate of the first frame in pixels.
+     * @param y The y-coordinate of the first frame in pixels.
+     * @param frameWidth The width of each frame in pixels.
+     * @param frameHeight The height of each frame in pixels.
+     * @param frameCount The number of frames.
+     * @param frameDuration The time each frame is shown, in seconds.
+     * @return The shared animation.
+     */
+    public Animation<TextureRegion> getStrip(String path, int x, int y, int frameWidth, int frameHeight,
+                                             int frameCount, float frameDuration) {
+        String key = path + '@' + x + ',' + y + ',' + frameWidth + ',' + frameHeight + ',' + frameCount + ',' + frameDuration;
+        Animation<TextureRegion> animation = animations.get(key);
+        if (animation == null) {
+            TextureRegion sheet = getSheet(path);
+            Array<TextureRegion> frames = new Array<>(TextureRegion.class);
+            for (int i = 0; i < frameCount; i++) {
+                frames.add(new TextureRegion(sheet, x + i * frameWidth, y, frameWidth, frameHeight));
+            }
+            animation = new Animation<>(frameDuration, frames);
+            animations.put(key, animation);
+        }
+        return animation;
+    }
+
+    /**
+     * Gets the number of loaded textures.
+     *
+     * @return The number of textures.
+     */
+    public int getTextureCount() {
+        return textures.size();
+    }
+
+    /**
+     * Checks whether the sprite sheets are drawn from the packed atlas.
+     *
+     * @return true if the atlas was loaded.
+     */
+    public boolean hasAtlas() {
+        return atlas != null;
+    }
+
+    /**
+     * Gets the number of shared animations.
+     *
+     * @return The number of animations.
+     */
+    public int getAnimationCount() {
+        return animations.size();
+    }
+
+    /**
+     * Disposes the atlas and all textures. The animations cut from them can no longer be drawn afterwards.
+     */
+    @Override
+    public void dispose() {
+        if (atlas != null) {
+            atlas.dispose();
+        }
+        for (Texture texture : textures.values()) {
+            texture.dispose();
+        }
+        textures.clear();
+        sheets.clear();
+        animations.clear();
+    }
+}
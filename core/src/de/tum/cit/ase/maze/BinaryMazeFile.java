@@ -0,0 +1,220 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The compact binary level format, an alternative to .properties files for large levels.
+ * A file starts with a fixed header: the magic bytes "MAZE", the format version, the number of settings,
+ * the width and height of the maze and a CRC32 checksum of everything after the header. The settings follow
+ * as pairs of length-prefixed UTF-8 strings, then one signed byte per tile in row-major order (y * width + x).
+ * <p>
+ * Files on disk are memory-mapped, so loading costs little more than checking the header and the checksum.
+ * Use {@link MazeConverter} to convert .properties levels.
+ */
+public class BinaryMazeFile {
+    public static final String EXTENSION = "maze";
+    public static final int VERSION = 1;
+    private static final int MAGIC = 0x4D415A45; // "MAZE"
+
+    private final int width;
+    private final int height;
+    private final Map<String, String> settings;
+    private final ByteBuffer tiles; // One byte per tile, row-major
+
+    private BinaryMazeFile(int width, int height, Map<String, String> settings, ByteBuffer tiles) {
+        this.width = width;
+        this.height = height;
+        this.settings = settings;
+        this.tiles = tiles;
+    }
+
+    /**
+     * Checks whether a file starts with the magic bytes of the binary format.
+     *
+     * @param fileHandle The file to check.
+     * @return true if the file is a binary maze file, false if it should be read as .properties file.
+     */
+    public static boolean isBinary(FileHandle fileHandle) {
+        try (InputStream input = fileHandle.read()) {
+            int magic = 0;
+            for (int i = 0; i < 4; i++) {
+                int next = input.read();
+                if (next < 0) {
+                    return false;
+                }
+                magic = (magic << 8) | next;
+            }
+            return magic == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a binary maze file. Files on disk are memory-mapped, other files (for example inside a jar) are read
+     * into memory.
+     *
+     * @param fileHandle The file to read.
+     * @return The contents of the file.
+     * @throws IOException If the file cannot be read, is not a binary maze file of a supported version,
+     *                     or its checksum does not match.
+     */
+    public static BinaryMazeFile read(FileHandle fileHandle) throws IOException {
+        ByteBuffer buffer;
+        File file = fileHandle.file();
+        if (file != null && file.isFile()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // Stays valid after closing
+            }
+        } else {
+            buffer = ByteBuffer.wrap(fileHandle.readBytes());
+        }
+        try {
+            return read(buffer);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Truncated binary maze file: " + fileHandle.name());
+        }
+    }
+
+    private static BinaryMazeFile read(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a binary maze file.");
+        }
+        int version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary maze format version " + version + ".");
+        }
+        int settingCount = buffer.getShort();
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE) {
+            throw new IOException("Invalid maze size " + width + "x" + height + ".");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Checksum mismatch, the binary maze file is damaged.");
+        }
+
+        Map<String, String> settings = new LinkedHashMap<>();
+        for (int i = 0; i < settingCount; i++) {
+            settings.put(readString(buffer), readString(buffer));
+        }
+        int tileCount = width * height;
+        if (buffer.remaining() != tileCount) {
+            throw new IOException("Expected " + tileCount + " tiles but found " + buffer.remaining() + ".");
+        }
+        return new BinaryMazeFile(width, height, settings, buffer.slice());
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a maze in the binary format.
+     *
+     * @param width The width of the maze in tiles.
+     * @param height The height of the maze in tiles.
+     * @param tiles The tile types at y * width + x.
+     * @param settings The level settings, such as the pathfinder.
+     * @param output The stream to write to; it is not closed.
+     * @throws IOException If the stream cannot be written.
+     */
+    public static void write(int width, int height, byte[] tiles, Map<String, String> settings, OutputStream output)
+            throws IOException {
+        ByteBuffer body = ByteBuffer.allocate(bodySize(settings) + width * height);
+        for (Map.Entry<String, String> setting : settings.entrySet()) {
+            writeString(body, setting.getKey());
+            writeString(body, setting.getValue());
+        }
+        body.put(tiles, 0, width * height);
+        body.flip();
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+
+        DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeShort(settings.size());
+        data.writeInt(width);
+        data.writeInt(height);
+        data.writeInt((int) crc.getValue());
+        data.write(body.array(), 0, body.limit());
+        data.flush();
+    }
+
+    private static int bodySize(Map<String, String> settings) {
+        int size = 0;
+        for (Map.Entry<String, String> setting : settings.entrySet()) {
+            size += 4 + setting.getKey().getBytes(StandardCharsets.UTF_8).length
+                    + setting.getValue().getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Copies the tiles of the maze out of the file.
+     *
+     * @return The tile types at y * width + x.
+     */
+    public byte[] createTiles() {
+        byte[] copy = new byte[width * height];
+        tiles.get(0, copy);
+        return copy;
+    }
+
+    /**
+     * Copies a run of tiles out of the file, for example one row of a chunk.
+     *
+     * @param index The index y * width + x of the first tile.
+     * @param out The array receiving the tiles.
+     * @param offset The position in the array of the first tile.
+     * @param length The number of tiles.
+     */
+    public void readTiles(int index, byte[] out, int offset, int length) {
+        tiles.get(index, out, offset, length);
+    }
+
+    /**
+     * Gets the value of a level setting, such as the pathfinder.
+     *
+     * @param key The name of the setting.
+     * @return The value, or null if the file does not contain the setting.
+     */
+    public String getSetting(String key) {
+        return settings.get(key);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,153 @@
+package de.tum.cit.ase.maze;
+
+import java.util.Arrays;
+
+/**
+ * A breadth-first search restricted to a rectangular region of a walkability grid.
+ * The search state is kept per tile of the region and reused between searches, so searching does not allocate.
+ * After a search, distances and shortest paths from the source can be read for every reached tile of the region.
+ */
+public class BoundedSearch {
+    private final WalkabilityGrid grid;
+    private final int gridWidth;
+    private final int[] distance;
+    private final int[] parent; // Grid tile index of the previous tile on the shortest path
+    private final int[] stamp;
+    private final int[] queue;
+    private int generation;
+
+    private int regionX;
+    private int regionY;
+    private int regionWidth;
+    private int regionHeight;
+
+    /**
+     * Creates a search for regions of at most the given size.
+     *
+     * @param grid The walkability grid to search.
+     * @param maxWidth The largest region width that will be searched.
+     * @param maxHeight The largest region height that will be searched.
+     */
+    public BoundedSearch(WalkabilityGrid grid, int maxWidth, int maxHeight) {
+        this.grid = grid;
+        this.gridWidth = grid.getWidth();
+        int size = maxWidth * maxHeight;
+        this.distance = new int[size];
+        this.parent = new int[size];
+        this.stamp = new int[size];
+        this.queue = new int[size];
+    }
+
+    /**
+     * Searches the region outwards from the source tile. The source is always entered, even if it is not walkable,
+     * but the search never leaves the region.
+     *
+     * @param x The x-coordinate of the lower left tile of the region.
+     * @param y The y-coordinate of the lower left tile of the region.
+     * @param width The width of the region in tiles.
+     * @param height The height of the region in tiles.
+     * @param source The grid tile index the search starts from; it must lie inside the region.
+     * @param target The grid tile index at which the search may stop early, or -1 to search the whole region.
+     */
+    public void search(int x, int y, int width, int height, int source, int target) {
+        regionX = x;
+        regionY = y;
+        regionWidth = width;
+        regionHeight = height;
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+
+        int head = 0;
+        int tail = 0;
+        int local = localIndex(source);
+        distance[local] = 0;
+        parent[local] = -1;
+        stamp[local] = generation;
+        queue[tail++] = source;
+
+        while (head < tail) {
+            int current = queue[head++];
+            if (current == target) {
+                return;
+            }
+            int currentX = current % gridWidth;
+            int currentY = current / gridWidth;
+            int nextDistance = distance[localIndex(current)] + 1;
+
+            if (currentX + 1 < regionX + regionWidth) tail = visit(current, current + 1, nextDistance, tail);
+            if (currentX > regionX) tail = visit(current, current - 1, nextDistance, tail);
+            if (currentY + 1 < regionY + regionHeight) tail = visit(current, current + gridWidth, nextDistance, tail);
+            if (currentY > regionY) tail = visit(current, current - gridWidth, nextDistance, tail);
+        }
+    }
+
+    private int visit(int from, int tile, int tileDistance, int tail) {
+        int local = localIndex(tile);
+        if (stamp[local] != generation && grid.isWalkable(tile)) {
+            stamp[local] = generation;
+            distance[local] = tileDistance;
+            parent[local] = from;
+            queue[tail++] = tile;
+        }
+        return tail;
+    }
+
+    /**
+     * Gets the number of steps from the source to the given tile found by the last search.
+     *
+     * @param tile The grid tile index.
+     * @return The number of steps, or -1 if the tile lies outside the region or was not reached.
+     */
+    public int distance(int tile) {
+        int x = tile % gridWidth;
+        int y = tile / gridWidth;
+        if (x < regionX || y < regionY || x >= regionX + regionWidth || y >= regionY + regionHeight) {
+            return -1;
+        }
+        int local = localIndex(tile);
+        return stamp[local] == generation ? distance[local] : -1;
+    }
+
+    /**
+     * Writes the path from the source to the given tile, excluding the source and including the tile.
+     * The tile must have been reached by the last search.
+     *
+     * @param target The grid tile index the path leads to.
+     * @param out The buffer receiving the path.
+     * @param offset The position in the buffer where the path starts.
+     * @return The number of tiles written.
+     */
+    public int pathTo(int target, int[] out, int offset) {
+        int length = distance(target);
+        int index = offset + length - 1;
+        for (int tile = target; index >= offset; tile = parent[localIndex(tile)], index--) {
+            out[index] = tile;
+        }
+        return length;
+    }
+
+    /**
+     * Writes the path from the given tile back to the source, excluding the tile and including the source.
+     * The tile must have been reached by the last search.
+     *
+     * @param from The grid tile index the path starts at.
+     * @param out The buffer receiving the path.
+     * @param offset The position in the buffer where the path starts.
+     * @return The number of tiles written.
+     */
+    public int pathToSource(int from, int[] out, int offset) {
+        int length = distance(from);
+        int index = offset;
+        for (int tile = parent[localIndex(from)]; index < offset + length; tile = parent[localIndex(tile)]) {
+            out[index++] = tile;
+        }
+        return length;
+    }
+
+    private int localIndex(int tile) {
+        return (tile / gridWidth - regionY) * regionWidth + (tile % gridWidth - regionX);
+    }
+}
@@ -0,0 +1,53 @@
+package de.tum.cit.ase.maze;
+
+import java.util.Arrays;
+
+/**
+ * Puts a shared {@link PathCache} in front of another pathfinder. Enemies that ask for the same pair of tiles,
+ * for example while the player stands still, reuse the path the first one found instead of searching again.
+ * Only pathfinders that return complete paths may be wrapped.
+ */
+public class CachingPathfinder implements Pathfinder {
+    private final Pathfinder delegate;
+    private final PathCache cache;
+    private int[] buffer = new int[64];
+
+    /**
+     * Creates a caching pathfinder.
+     *
+     * @param delegate The pathfinder that runs the searches the cache cannot answer.
+     * @param cache The cache shared by the pathfinders of the maze.
+     */
+    public CachingPathfinder(Pathfinder delegate, PathCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public int findPath(int startX, int startY, int endX, int endY, int[] out) {
+        int width = delegate.getWidth();
+        if (startX < 0 || startY < 0 || endX < 0 || endY < 0 || startX >= width || endX >= width) {
+            // Not a valid tile pair, and its index could collide with one
+            return delegate.findPath(startX, startY, endX, endY, out);
+        }
+        int start = startY * width + startX;
+        int goal = endY * width + endX;
+        int[] path = cache.get(start, goal);
+        if (path == null) {
+            int length = delegate.findPath(startX, startY, endX, endY, buffer);
+            if (length > buffer.length) {
+                buffer = new int[Integer.highestOneBit(length) << 1];
+                length = delegate.findPath(startX, startY, endX, endY, buffer);
+            }
+            path = Arrays.copyOf(buffer, length);
+            cache.put(start, goal, path);
+        }
+        System.arraycopy(path, 0, out, 0, Math.min(path.length, out.length));
+        return path.length;
+    }
+
+    @Override
+    public int getWidth() {
+        return delegate.getWidth();
+    }
+}
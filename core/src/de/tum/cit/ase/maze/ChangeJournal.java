@@ -0,0 +1,105 @@
+package de.tum.cit.ase.maze;
+
+/**
+ * Records the most recent tile changes of a maze in a ring buffer, so anything derived from the maze can catch up
+ * on what changed since it last looked instead of rebuilding. Every change increments the version by one;
+ * the change that produced version v is stored in slot (v - 1) % capacity. Once more than capacity changes
+ * happened since a consumer's version, the journal can no longer tell and the consumer has to rebuild.
+ * Tiles are addressed by their index y * width + x.
+ */
+public class ChangeJournal {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final int[] tiles;
+    private final byte[] oldTypes;
+    private final byte[] newTypes;
+    private long version;
+
+    /**
+     * Creates an empty journal at version 0.
+     *
+     * @param capacity The number of changes the journal remembers.
+     */
+    public ChangeJournal(int capacity) {
+        this.tiles = new int[capacity];
+        this.oldTypes = new byte[capacity];
+        this.newTypes = new byte[capacity];
+    }
+
+    /**
+     * Records a tile change and increments the version.
+     *
+     * @param tile The index of the changed tile.
+     * @param oldType The type of the tile before the change.
+     * @param newType The type of the tile after the change.
+     */
+    public void record(int tile, int oldType, int newType) {
+        int slot = (int) (version % tiles.length);
+        tiles[slot] = tile;
+        oldTypes[slot] = (byte) oldType;
+        newTypes[slot] = (byte) newType;
+        version++;
+    }
+
+    /**
+     * Checks whether the journal still holds every change since a version.
+     *
+     * @param since The version a consumer last saw.
+     * @return true if {@link #changesSince(long, int[])} can answer for that version.
+     */
+    public boolean covers(long since) {
+        return since >= 0 && since <= version && version - since <= tiles.length;
+    }
+
+    /**
+     * Gets the tiles changed after a version, oldest change first. A tile changed several times appears several times.
+     *
+     * @param since The version a consumer last saw.
+     * @param out The buffer receiving the tile indices. If it is too small, only the oldest changes are written.
+     * @return The number of changes, which may exceed the length of the buffer, or -1 if the journal
+     *         no longer covers the version and the consumer has to rebuild.
+     */
+    public int changesSince(long since, int[] out) {
+        if (!covers(since)) {
+            return -1;
+        }
+        int count = (int) (version - since);
+        for (int i = 0; i < count && i < out.length; i++) {
+            out[i] = tiles[(int) ((since + i) % tiles.length)];
+        }
+        return count;
+    }
+
+    /**
+     * Gets the type a tile had before the change that produced a version.
+     *
+     * @param changeVersion The version right after the change, at most the current version.
+     * @return The old type of the changed tile; only meaningful if the journal still covers changeVersion - 1.
+     */
+    public int getOldType(long changeVersion) {
+        return oldTypes[(int) ((changeVersion - 1) % tiles.length)];
+    }
+
+    /**
+     * Gets the type a tile was given by the change that produced a version.
+     *
+     * @param changeVersion The version right after the change, at most the current version.
+     * @return The new type of the changed tile; only meaningful if the journal still covers changeVersion - 1.
+     */
+    public int getNewType(long changeVersion) {
+        return newTypes[(int) ((changeVersion - 1) % tiles.length)];
+    }
+
+    /**
+     * Gets the current version, which is the number of changes recorded so far.
+     *
+     * @return The current version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int getCapacity() {
+        return tiles.length;
+    }
+}
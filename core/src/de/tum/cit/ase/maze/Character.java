@@ -196,8 +196,9 @@ public void draw(SpriteBatch batch) {
      * Checks and updates the character's status based on the maze element it encounters.
      *
      * @param maze The maze containing the elements.
+     * @param enemies The enemies of the level.
      */
-    public void updateStatus(Maze maze, Array<MazeElement> mazeElements) {
+    public void updateStatus(Maze maze, Array<Enemy> enemies) {
         try {
             int elementType = maze.getElementAt((int) x, (int) y);
 
@@ -212,18 +213,15 @@ public void updateStatus(Maze maze, Array<MazeElement> mazeElements) {
                     break;
             }
             //iterating through the maze elements to check if the character collides with an enemy
-            for (MazeElement element : mazeElements) {
-                if (element instanceof Enemy) {
-                    Enemy enemy = (Enemy) element;
-                    if (this.bounds.overlaps(enemy.getBounds())) {
-                        if(this.isArmed){
-                            enemy.die();
-                        }
-                        else {
-                            loseLife();
-                        }
-                        break;
+            for (Enemy enemy : enemies) {
+                if (this.bounds.overlaps(enemy.getBounds())) {
+                    if(this.isArmed){
+                        enemy.die();
                     }
+                    else {
+                        loseLife();
+                    }
+                    break;
                 }
             }
         } catch (Exception e) {
@@ -0,0 +1,327 @@
+package de.tum.cit.ase.maze;
+
+import java.util.Arrays;
+
+/**
+ * The abstract graph used for hierarchical pathfinding (HPA*). The maze is divided into square clusters.
+ * Where two neighbouring clusters share walkable tiles along their border, entrance tiles are placed on both sides,
+ * and the distances between the entrances of each cluster are precomputed. A long search can then run over the
+ * entrances instead of over every tile.
+ * <p>
+ * One graph is shared by all hierarchical pathfinders of a maze. When a tile changes, only the cluster containing it
+ * (and the neighbour across a border the tile lies on) is marked dirty and rebuilt before the next search.
+ * Tiles are addressed by their index y * width + x.
+ */
+public class ClusterGraph implements WalkabilityListener {
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+    private static final int MAX_SINGLE_ENTRANCE_RUN = 6; // Longer openings get an entrance at both ends
+
+    private final WalkabilityGrid grid;
+    private final int width;
+    private final int height;
+    private final int clusterSize;
+    private final int clustersX;
+    private final int clustersY;
+
+    // Entrance pairs per border as [lowSide0, highSide0, lowSide1, highSide1, ...]
+    private final int[][] verticalBorders; // Between clusters (cx, cy) and (cx + 1, cy)
+    private final int[][] horizontalBorders; // Between clusters (cx, cy) and (cx, cy + 1)
+    private final boolean[] dirtyVerticalBorders;
+    private final boolean[] dirtyHorizontalBorders;
+
+    private final int[][] entrances; // Entrance tiles per cluster
+    private final int[][] distances; // Distances between the entrances of a cluster, -1 if not connected inside it
+    private final boolean[] dirtyClusters;
+    private final int[] entranceIndex; // Position of each tile in its cluster's entrances, or -1
+    private boolean dirty;
+    private int clusterRebuilds;
+
+    private final BoundedSearch search;
+    private final int[] pairBuffer;
+
+    /**
+     * Creates the abstract graph of a grid with the default cluster size and registers it for changes of the grid.
+     *
+     * @param grid The walkability grid of the maze.
+     */
+    public ClusterGraph(WalkabilityGrid grid) {
+        this(grid, DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * Creates the abstract graph of a grid and registers it for changes of the grid.
+     * The graph is built lazily before the first search.
+     *
+     * @param grid The walkability grid of the maze.
+     * @param clusterSize The width and height of a cluster in tiles.
+     */
+    public ClusterGraph(WalkabilityGrid grid, int clusterSize) {
+        this(grid, clusterSize, true);
+    }
+
+    private ClusterGraph(WalkabilityGrid grid, int clusterSize, boolean listen) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.clusterSize = clusterSize;
+        this.clustersX = Math.max(1, (width + clusterSize - 1) / clusterSize);
+        this.clustersY = Math.max(1, (height + clusterSize - 1) / clusterSize);
+
+        this.verticalBorders = new int[(clustersX - 1) * clustersY][];
+        this.horizontalBorders = new int[clustersX * (clustersY - 1)][];
+        this.dirtyVerticalBorders = new boolean[verticalBorders.length];
+        this.dirtyHorizontalBorders = new boolean[horizontalBorders.length];
+        this.entrances = new int[clustersX * clustersY][];
+        this.distances = new int[clustersX * clustersY][];
+        this.dirtyClusters = new boolean[clustersX * clustersY];
+        this.entranceIndex = new int[width * height];
+        Arrays.fill(entranceIndex, -1);
+        Arrays.fill(dirtyVerticalBorders, true);
+        Arrays.fill(dirtyHorizontalBorders, true);
+        Arrays.fill(dirtyClusters, true);
+        this.dirty = true;
+
+        this.search = new BoundedSearch(grid, clusterSize, clusterSize);
+        this.pairBuffer = new int[clusterSize * 2];
+        if (listen) {
+            grid.addListener(this);
+        }
+    }
+
+    /**
+     * Builds the abstract graph of a snapshot at once, without registering it for changes, since a snapshot never
+     * changes. The graph is only read afterwards and may be shared by pathfinders on several threads.
+     *
+     * @param snapshot The snapshot of the walkability grid, see {@link WalkabilityGrid#snapshot()}.
+     * @return The built cluster graph.
+     */
+    public static ClusterGraph ofSnapshot(WalkabilityGrid snapshot) {
+        ClusterGraph graph = new ClusterGraph(snapshot, DEFAULT_CLUSTER_SIZE, false);
+        graph.ensureClean();
+        return graph;
+    }
+
+    /**
+     * Marks the cluster of the changed tile as dirty. If the tile lies on a cluster border, the border
+     * and the cluster on its other side are marked as well, because their entrances may have changed.
+     */
+    @Override
+    public void walkabilityChanged(int x, int y, boolean walkable) {
+        int cx = x / clusterSize;
+        int cy = y / clusterSize;
+        dirtyClusters[cy * clustersX + cx] = true;
+        if (x % clusterSize == clusterSize - 1 && cx + 1 < clustersX) {
+            dirtyVerticalBorders[cy * (clustersX - 1) + cx] = true;
+            dirtyClusters[cy * clustersX + cx + 1] = true;
+        }
+        if (x % clusterSize == 0 && cx > 0) {
+            dirtyVerticalBorders[cy * (clustersX - 1) + cx - 1] = true;
+            dirtyClusters[cy * clustersX + cx - 1] = true;
+        }
+        if (y % clusterSize == clusterSize - 1 && cy + 1 < clustersY) {
+            dirtyHorizontalBorders[cy * clustersX + cx] = true;
+            dirtyClusters[(cy + 1) * clustersX + cx] = true;
+        }
+        if (y % clusterSize == 0 && cy > 0) {
+            dirtyHorizontalBorders[(cy - 1) * clustersX + cx] = true;
+            dirtyClusters[(cy - 1) * clustersX + cx] = true;
+        }
+        dirty = true;
+    }
+
+    /**
+     * Rebuilds every dirty border and cluster. Called by the pathfinders before each search.
+     */
+    public void ensureClean() {
+        if (!dirty) {
+            return;
+        }
+        for (int i = 0; i < verticalBorders.length; i++) {
+            if (dirtyVerticalBorders[i]) {
+                verticalBorders[i] = buildBorder(i % (clustersX - 1), i / (clustersX - 1), true);
+                dirtyVerticalBorders[i] = false;
+            }
+        }
+        for (int i = 0; i < horizontalBorders.length; i++) {
+            if (dirtyHorizontalBorders[i]) {
+                horizontalBorders[i] = buildBorder(i % clustersX, i / clustersX, false);
+                dirtyHorizontalBorders[i] = false;
+            }
+        }
+        for (int cluster = 0; cluster < dirtyClusters.length; cluster++) {
+            if (dirtyClusters[cluster]) {
+                buildCluster(cluster);
+                dirtyClusters[cluster] = false;
+            }
+        }
+        dirty = false;
+    }
+
+    /**
+     * Places entrances along the border between a cluster and its right or upper neighbour.
+     * Every maximal opening along the border gets an entrance pair in its middle, or one at each end if it is long.
+     */
+    private int[] buildBorder(int cx, int cy, boolean vertical) {
+        // The low side lies in cluster (cx, cy), the high side in the neighbour
+        int lowLine = (vertical ? cx + 1 : cy + 1) * clusterSize - 1;
+        int start = (vertical ? cy : cx) * clusterSize;
+        int end = Math.min(start + clusterSize, vertical ? height : width);
+        int pairs = 0;
+        int runStart = -1;
+
+        for (int i = start; i <= end; i++) {
+            boolean open = i < end && (vertical
+                    ? grid.isWalkable(lowLine, i) && grid.isWalkable(lowLine + 1, i)
+                    : grid.isWalkable(i, lowLine) && grid.isWalkable(i, lowLine + 1));
+            if (open && runStart < 0) {
+                runStart = i;
+            } else if (!open && runStart >= 0) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 < MAX_SINGLE_ENTRANCE_RUN) {
+                    pairs = addPair(pairs, (runStart + runEnd) / 2, lowLine, vertical);
+                } else {
+                    pairs = addPair(pairs, runStart, lowLine, vertical);
+                    pairs = addPair(pairs, runEnd, lowLine, vertical);
+                }
+                runStart = -1;
+            }
+        }
+        return Arrays.copyOf(pairBuffer, pairs * 2);
+    }
+
+    private int addPair(int pairs, int along, int lowLine, boolean vertical) {
+        pairBuffer[pairs * 2] = vertical ? along * width + lowLine : lowLine * width + along;
+        pairBuffer[pairs * 2 + 1] = vertical ? along * width + lowLine + 1 : (lowLine + 1) * width + along;
+        return pairs + 1;
+    }
+
+    /**
+     * Collects the entrances of a cluster from its four borders and computes the distances between them
+     * with a breadth-first search that stays inside the cluster.
+     */
+    private void buildCluster(int cluster) {
+        int cx = cluster % clustersX;
+        int cy = cluster / clustersX;
+        if (entrances[cluster] != null) {
+            for (int tile : entrances[cluster]) {
+                entranceIndex[tile] = -1;
+            }
+        }
+
+        int[] left = cx > 0 ? verticalBorders[cy * (clustersX - 1) + cx - 1] : null;
+        int[] right = cx + 1 < clustersX ? verticalBorders[cy * (clustersX - 1) + cx] : null;
+        int[] below = cy > 0 ? horizontalBorders[(cy - 1) * clustersX + cx] : null;
+        int[] above = cy + 1 < clustersY ? horizontalBorders[cy * clustersX + cx] : null;
+        int capacity = sideLength(left) + sideLength(right) + sideLength(below) + sideLength(above);
+
+        int[] clusterEntrances = new int[capacity];
+        int count = 0;
+        count = collectSide(left, 1, clusterEntrances, count);
+        count = collectSide(right, 0, clusterEntrances, count);
+        count = collectSide(below, 1, clusterEntrances, count);
+        count = collectSide(above, 0, clusterEntrances, count);
+        clusterEntrances = Arrays.copyOf(clusterEntrances, count);
+
+        int[] clusterDistances = new int[count * count];
+        int x = clusterX(cluster);
+        int y = clusterY(cluster);
+        for (int i = 0; i < count; i++) {
+            search.search(x, y, clusterWidth(cluster), clusterHeight(cluster), clusterEntrances[i], -1);
+            for (int j = 0; j < count; j++) {
+                clusterDistances[i * count + j] = search.distance(clusterEntrances[j]);
+            }
+        }
+
+        entrances[cluster] = clusterEntrances;
+        distances[cluster] = clusterDistances;
+        clusterRebuilds++;
+    }
+
+    private static int sideLength(int[] border) {
+        return border == null ? 0 : border.length / 2;
+    }
+
+    private int collectSide(int[] border, int side, int[] out, int count) {
+        if (border == null) {
+            return count;
+        }
+        for (int i = side; i < border.length; i += 2) {
+            int tile = border[i];
+            if (entranceIndex[tile] < 0) {
+                entranceIndex[tile] = count;
+                out[count++] = tile;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the cluster a tile belongs to.
+     *
+     * @param tile The tile index.
+     * @return The cluster index cy * clustersX + cx.
+     */
+    public int clusterOf(int tile) {
+        return (tile / width / clusterSize) * clustersX + (tile % width) / clusterSize;
+    }
+
+    public int clusterX(int cluster) {
+        return (cluster % clustersX) * clusterSize;
+    }
+
+    public int clusterY(int cluster) {
+        return (cluster / clustersX) * clusterSize;
+    }
+
+    public int clusterWidth(int cluster) {
+        return Math.min(clusterSize, width - clusterX(cluster));
+    }
+
+    public int clusterHeight(int cluster) {
+        return Math.min(clusterSize, height - clusterY(cluster));
+    }
+
+    /**
+     * Gets the entrance tiles of a cluster. The graph must be clean.
+     *
+     * @param cluster The cluster index.
+     * @return The tile indices of the entrances; the array must not be modified.
+     */
+    public int[] getEntrances(int cluster) {
+        return entrances[cluster];
+    }
+
+    /**
+     * Gets the position of a tile among the entrances of its cluster.
+     *
+     * @param tile The tile index.
+     * @return The position, or -1 if the tile is not an entrance.
+     */
+    public int getEntranceIndex(int tile) {
+        return entranceIndex[tile];
+    }
+
+    /**
+     * Gets the number of steps between two entrances of a cluster without leaving the cluster.
+     *
+     * @param cluster The cluster index.
+     * @param from The position of the first entrance.
+     * @param to The position of the second entrance.
+     * @return The number of steps, or -1 if the entrances are not connected inside the cluster.
+     */
+    public int getDistance(int cluster, int from, int to) {
+        return distances[cluster][from * entrances[cluster].length + to];
+    }
+
+    public WalkabilityGrid getGrid() {
+        return grid;
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    public int getClusterRebuilds() {
+        return clusterRebuilds;
+    }
+}
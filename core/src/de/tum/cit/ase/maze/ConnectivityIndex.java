@@ -0,0 +1,339 @@
+package de.tum.cit.ase.maze;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Labels the connected regions of a walkability grid, so whether one tile can be reached from another is known
+ * without searching. Two walkable tiles are connected if and only if they end up with the same label.
+ * <p>
+ * The labels are computed once and then kept up to date as the grid changes. A tile that becomes walkable joins
+ * the regions of its neighbours, merging them if there are several. A tile that becomes blocked may split its
+ * region; unless its neighbours stay connected around it, the region is only marked as possibly split, and the
+ * part containing a tile is relabelled the next time that tile is asked about.
+ * Tiles are addressed by their index y * width + x.
+ */
+public class ConnectivityIndex implements WalkabilityListener {
+    private static final int NONE = -1; // Label of blocked tiles
+    private static final int[] RING_X = {0, 1, 1, 1, 0, -1, -1, -1}; // The eight neighbours of a tile, clockwise
+    private static final int[] RING_Y = {1, 1, 0, -1, -1, -1, 0, 1};
+
+    private final WalkabilityGrid grid;
+    private final int width;
+    private final int height;
+    private final int[] labels;
+    private final int[] queue;
+    private int[] sizes = new int[16]; // Number of tiles per label
+    private boolean[] maybeSplit = new boolean[16]; // Labels whose tiles may no longer be connected
+    private int nextLabel;
+    private int relabels;
+
+    /**
+     * Labels the regions of a grid and registers the index for changes of the grid.
+     *
+     * @param grid The walkability grid to index.
+     */
+    public ConnectivityIndex(WalkabilityGrid grid) {
+        this(grid, null);
+    }
+
+    private ConnectivityIndex(WalkabilityGrid grid, ByteBuffer saved) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.labels = new int[width * height];
+        this.queue = new int[width * height];
+        if (saved == null) {
+            labelAll();
+        } else {
+            restore(saved);
+        }
+        grid.addListener(this);
+    }
+
+    /**
+     * Reads an index written by {@link #writeTo(ByteBuffer)} instead of labelling the grid again,
+     * and registers it for changes of the grid.
+     *
+     * @param grid The walkability grid the index was written for.
+     * @param in The buffer to read from; its position is advanced.
+     * @return The connectivity index.
+     */
+    public static ConnectivityIndex readFrom(WalkabilityGrid grid, ByteBuffer in) {
+        return new ConnectivityIndex(grid, in);
+    }
+
+    private void restore(ByteBuffer in) {
+        nextLabel = in.getInt();
+        if (nextLabel < 0 || nextLabel > labels.length) {
+            throw new IllegalArgumentException("Invalid label count " + nextLabel);
+        }
+        int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, nextLabel)) << 1);
+        sizes = new int[capacity];
+        maybeSplit = new boolean[capacity];
+        in.asIntBuffer().get(sizes, 0, nextLabel);
+        in.position(in.position() + nextLabel * 4);
+        for (int label = 0; label < nextLabel; label++) {
+            maybeSplit[label] = in.get() != 0;
+        }
+        in.asIntBuffer().get(labels);
+        in.position(in.position() + labels.length * 4);
+    }
+
+    /**
+     * Gets the number of bytes {@link #writeTo(ByteBuffer)} writes.
+     *
+     * @return The size of the index in bytes.
+     */
+    public int getSerializedSize() {
+        return 4 + nextLabel * 5 + labels.length * 4;
+    }
+
+    /**
+     * Writes the labels, for example to the level cache, so they need not be computed again.
+     *
+     * @param out The buffer to write to; its position is advanced.
+     */
+    public void writeTo(ByteBuffer out) {
+        out.putInt(nextLabel);
+        out.asIntBuffer().put(sizes, 0, nextLabel);
+        out.position(out.position() + nextLabel * 4);
+        for (int label = 0; label < nextLabel; label++) {
+            out.put((byte) (maybeSplit[label] ? 1 : 0));
+        }
+        out.asIntBuffer().put(labels);
+        out.position(out.position() + labels.length * 4);
+    }
+
+    /**
+     * Throws away all labels and labels every region from scratch.
+     */
+    private void labelAll() {
+        Arrays.fill(labels, NONE);
+        nextLabel = 0;
+        Arrays.fill(sizes, 0);
+        Arrays.fill(maybeSplit, false);
+        for (int tile = 0; tile < labels.length; tile++) {
+            if (labels[tile] == NONE && grid.isWalkable(tile)) {
+                flood(tile, NONE, newLabel());
+            }
+        }
+    }
+
+    private int newLabel() {
+        if (nextLabel == sizes.length) {
+            sizes = Arrays.copyOf(sizes, sizes.length * 2);
+            maybeSplit = Arrays.copyOf(maybeSplit, maybeSplit.length * 2);
+        }
+        sizes[nextLabel] = 0;
+        maybeSplit[nextLabel] = false;
+        return nextLabel++;
+    }
+
+    /**
+     * Gives every walkable tile connected to the source that currently has the old label the new label.
+     *
+     * @return The number of relabelled tiles.
+     */
+    private int flood(int source, int oldLabel, int newLabel) {
+        int head = 0;
+        int tail = 0;
+        labels[source] = newLabel;
+        queue[tail++] = source;
+        while (head < tail) {
+            int current = queue[head++];
+            int x = current % width;
+            if (x + 1 < width) tail = visit(current + 1, oldLabel, newLabel, tail);
+            if (x > 0) tail = visit(current - 1, oldLabel, newLabel, tail);
+            if (current + width < labels.length) tail = visit(current + width, oldLabel, newLabel, tail);
+            if (current >= width) tail = visit(current - width, oldLabel, newLabel, tail);
+        }
+        if (oldLabel != NONE) {
+            sizes[oldLabel] -= tail;
+        }
+        sizes[newLabel] += tail;
+        return tail;
+    }
+
+    private int visit(int tile, int oldLabel, int newLabel, int tail) {
+        if (labels[tile] == oldLabel && grid.isWalkable(tile)) {
+            labels[tile] = newLabel;
+            queue[tail++] = tile;
+        }
+        return tail;
+    }
+
+    @Override
+    public void walkabilityChanged(int x, int y, boolean walkable) {
+        int tile = y * width + x;
+        if (walkable) {
+            join(tile);
+        } else {
+            leave(tile);
+        }
+    }
+
+    /**
+     * Adds a tile that became walkable to the largest neighbouring region and merges the others into it.
+     */
+    private void join(int tile) {
+        int x = tile % width;
+        int y = tile / width;
+        int target = NONE;
+        for (int i = 0; i < 8; i += 2) {
+            int label = labelAt(x + RING_X[i], y + RING_Y[i]);
+            if (label != NONE && (target == NONE || sizes[label] > sizes[target])) {
+                target = label;
+            }
+        }
+        if (target == NONE) {
+            if (nextLabel >= labels.length) {
+                labelAll(); // Labels are never reused, so start over before the label arrays outgrow the grid
+                return;
+            }
+            target = newLabel();
+        }
+        labels[tile] = target;
+        sizes[target]++;
+        for (int i = 0; i < 8; i += 2) {
+            int nx = x + RING_X[i];
+            int ny = y + RING_Y[i];
+            int label = labelAt(nx, ny);
+            if (label != NONE && label != target) {
+                flood(ny * width + nx, label, target);
+            }
+        }
+    }
+
+    /**
+     * Removes a tile that became blocked from its region and marks the region as possibly split,
+     * unless the tile's neighbours are still connected through the tiles around it.
+     */
+    private void leave(int tile) {
+        int label = labels[tile];
+        if (label == NONE) {
+            return;
+        }
+        labels[tile] = NONE;
+        sizes[label]--;
+
+        // Count the runs of walkable tiles in the ring around the tile that contain a direct neighbour
+        int x = tile % width;
+        int y = tile / width;
+        int first = 0;
+        while (first < 8 && labelAt(x + RING_X[first], y + RING_Y[first]) != NONE) {
+            first++;
+        }
+        if (first == 8) {
+            return; // The whole ring is walkable
+        }
+        int runs = 0;
+        boolean inRun = false;
+        boolean runHasNeighbor = false;
+        for (int step = 1; step <= 8; step++) {
+            int i = (first + step) % 8;
+            boolean open = labelAt(x + RING_X[i], y + RING_Y[i]) != NONE;
+            if (open) {
+                inRun = true;
+                runHasNeighbor |= i % 2 == 0;
+            } else if (inRun) {
+                runs += runHasNeighbor ? 1 : 0;
+                inRun = false;
+                runHasNeighbor = false;
+            }
+        }
+        if (runs > 1) {
+            maybeSplit[label] = true;
+        }
+    }
+
+    private int labelAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return NONE;
+        }
+        return labels[y * width + x];
+    }
+
+    /**
+     * Gets the up-to-date label of a tile, relabelling the tile's part of its region first if the region
+     * may have been split.
+     */
+    private int labelOf(int tile) {
+        int label = labels[tile];
+        if (label != NONE && maybeSplit[label]) {
+            if (nextLabel >= labels.length) {
+                // Labels are never reused, so start over before the label arrays outgrow the grid
+                labelAll();
+                return labels[tile];
+            }
+            int newLabel = newLabel();
+            flood(tile, label, newLabel);
+            relabels++;
+            if (sizes[label] == 0) {
+                maybeSplit[label] = false;
+            }
+            return newLabel;
+        }
+        return label;
+    }
+
+    /**
+     * Checks whether two tiles are walkable and connected.
+     *
+     * @param from The index of the first tile.
+     * @param to The index of the second tile.
+     * @return true if a path of walkable tiles leads from one tile to the other.
+     */
+    public boolean isConnected(int from, int to) {
+        int fromLabel = labels[from];
+        int toLabel = labels[to];
+        if (fromLabel == NONE || fromLabel != toLabel) {
+            // Regions only ever split lazily, so different labels are always different regions
+            return false;
+        }
+        return labelOf(from) == labelOf(to);
+    }
+
+    /**
+     * Checks whether a path can lead from a start tile to an end tile. Like the pathfinders, this allows the start
+     * tile itself to be blocked, as it is for an enemy standing on its own tile; the path then leaves it
+     * through one of its walkable neighbours.
+     *
+     * @param startX The x-coordinate of the start tile.
+     * @param startY The y-coordinate of the start tile.
+     * @param endX The x-coordinate of the end tile.
+     * @param endY The y-coordinate of the end tile.
+     * @return true if the end tile is walkable and can be reached from the start tile.
+     */
+    public boolean isReachable(int startX, int startY, int endX, int endY) {
+        if (startX < 0 || startY < 0 || startX >= width || startY >= height
+                || endX < 0 || endY < 0 || endX >= width || endY >= height) {
+            return false;
+        }
+        int start = startY * width + startX;
+        int goal = endY * width + endX;
+        if (labels[goal] == NONE) {
+            return false;
+        }
+        if (labels[start] != NONE) {
+            return isConnected(start, goal);
+        }
+        for (int i = 0; i < 8; i += 2) {
+            int nx = startX + RING_X[i];
+            int ny = startY + RING_Y[i];
+            if (labelAt(nx, ny) != NONE && isConnected(ny * width + nx, goal)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of times part of a possibly split region was relabelled, a measure of the upkeep cost.
+     *
+     * @return The number of relabels.
+     */
+    public int getRelabels() {
+        return relabels;
+    }
+}
@@ -0,0 +1,488 @@
+package de.tum.cit.ase.maze;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compresses the corridors of a maze into a small graph. Every walkable tile with other than exactly two walkable
+ * neighbours (a junction, a dead end or a tile in an open room) becomes a node, and every corridor of two-neighbour
+ * tiles between two nodes becomes one edge weighted with its length. In a maze made of one-tile corridors
+ * a search over this graph expands only a fraction of the tiles a search over the grid would.
+ * <p>
+ * The graph listens to the walkability grid. When a tile changes, only the corridors and nodes around it are
+ * removed and traced again. A closed loop of corridor tiles without any junction gets one of its tiles as a node.
+ * Nodes are identified by their tile index y * width + x.
+ */
+public class CorridorGraph implements WalkabilityListener {
+    private static final int[] DIRECTION_X = {1, -1, 0, 0};
+    private static final int[] DIRECTION_Y = {0, 0, 1, -1};
+
+    private final WalkabilityGrid grid;
+    private final int width;
+    private final int height;
+
+    private final boolean[] isNode;
+    private final int[] nodeEdges; // Corridor leaving each node per direction, at tile * 4 + direction, or -1
+    private final int[] corridorOf; // Corridor each inner corridor tile belongs to, or -1
+    private final int[] positionOf; // Position of each inner corridor tile along its corridor, from 1
+
+    // Corridors, reused through a free list. Position 0 is the first node, position length the last node.
+    private int[] corridorFirst = new int[64];
+    private int[] corridorLast = new int[64];
+    private int[] corridorFirstDirection = new int[64]; // Direction in which the corridor leaves its first node
+    private int[] corridorLastDirection = new int[64]; // Direction in which the corridor leaves its last node
+    private int[][] corridorTiles = new int[64][]; // Inner tiles from the first to the last node, null if free
+    private int[] freeCorridors = new int[64];
+    private int freeCount;
+    private int corridorCount; // Corridor slots in use or freed
+
+    private int[] traceBuffer = new int[64];
+    private int[] retrace = new int[64]; // Nodes to trace from after a change
+    private int retraceCount;
+    private int[] orphans = new int[64]; // Tiles that may have lost their corridor after a change
+    private int orphanCount;
+
+    private int nodeCount;
+    private int retraces;
+
+    /**
+     * Builds the corridor graph of a grid and registers it for changes of the grid.
+     *
+     * @param grid The walkability grid of the maze.
+     */
+    public CorridorGraph(WalkabilityGrid grid) {
+        this(grid, null, true);
+    }
+
+    private CorridorGraph(WalkabilityGrid grid, ByteBuffer saved, boolean listen) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        int tiles = width * height;
+        this.isNode = new boolean[tiles];
+        this.nodeEdges = new int[tiles * 4];
+        this.corridorOf = new int[tiles];
+        this.positionOf = new int[tiles];
+        Arrays.fill(nodeEdges, -1);
+        Arrays.fill(corridorOf, -1);
+        if (saved != null) {
+            restore(saved);
+            if (listen) {
+                grid.addListener(this);
+            }
+            return;
+        }
+
+        for (int tile = 0; tile < tiles; tile++) {
+            if (grid.isWalkable(tile) && degree(tile) != 2) {
+                addNode(tile);
+            }
+        }
+        for (int tile = 0; tile < tiles; tile++) {
+            if (isNode[tile]) {
+                traceAll(tile);
+            }
+        }
+        for (int tile = 0; tile < tiles; tile++) {
+            if (grid.isWalkable(tile) && !isNode[tile] && corridorOf[tile] < 0) {
+                // A loop without any junction
+                addNode(tile);
+                traceAll(tile);
+            }
+        }
+        if (listen) {
+            grid.addListener(this);
+        }
+    }
+
+    /**
+     * Builds the corridor graph of a snapshot without registering it for changes, since a snapshot never changes.
+     * The graph is only read afterwards and may be shared by pathfinders on several threads.
+     *
+     * @param snapshot The snapshot of the walkability grid, see {@link WalkabilityGrid#snapshot()}.
+     * @return The corridor graph.
+     */
+    public static CorridorGraph ofSnapshot(WalkabilityGrid snapshot) {
+        return new CorridorGraph(snapshot, null, false);
+    }
+
+    /**
+     * Reads a graph written by {@link #writeTo(ByteBuffer)} instead of tracing the grid again,
+     * and registers it for changes of the grid.
+     *
+     * @param grid The walkability grid the graph was written for.
+     * @param in The buffer to read from; its position is advanced.
+     * @return The corridor graph.
+     */
+    public static CorridorGraph readFrom(WalkabilityGrid grid, ByteBuffer in) {
+        return new CorridorGraph(grid, in, true);
+    }
+
+    private void restore(ByteBuffer in) {
+        int nodes = in.getInt();
+        for (int i = 0; i < nodes; i++) {
+            addNode(in.getInt());
+        }
+        int corridors = in.getInt();
+        while (corridorCount < corridors) {
+            newCorridorSlot();
+        }
+        for (int corridor = 0; corridor < corridors; corridor++) {
+            int length = in.getInt();
+            if (length < 0) {
+                if (freeCount == freeCorridors.length) {
+                    freeCorridors = Arrays.copyOf(freeCorridors, freeCount * 2);
+                }
+                freeCorridors[freeCount++] = corridor;
+                continue;
+            }
+            int first = in.getInt();
+            int last = in.getInt();
+            corridorFirst[corridor] = first;
+            corridorLast[corridor] = last;
+            corridorFirstDirection[corridor] = in.getInt();
+            corridorLastDirection[corridor] = in.getInt();
+            int[] inner = new int[length];
+            in.asIntBuffer().get(inner);
+            in.position(in.position() + length * 4);
+            corridorTiles[corridor] = inner;
+            for (int i = 0; i < length; i++) {
+                corridorOf[inner[i]] = corridor;
+                positionOf[inner[i]] = i + 1;
+            }
+            nodeEdges[first * 4 + corridorFirstDirection[corridor]] = corridor;
+            nodeEdges[last * 4 + corridorLastDirection[corridor]] = corridor;
+        }
+    }
+
+    /**
+     * Gets the number of bytes {@link #writeTo(ByteBuffer)} writes.
+     *
+     * @return The size of the graph in bytes.
+     */
+    public int getSerializedSize() {
+        long size = 8 + nodeCount * 4L;
+        for (int corridor = 0; corridor < corridorCount; corridor++) {
+            size += corridorTiles[corridor] == null ? 4 : 20 + corridorTiles[corridor].length * 4L;
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Writes the nodes and corridors, for example to the level cache, so they need not be traced again.
+     *
+     * @param out The buffer to write to; its position is advanced.
+     */
+    public void writeTo(ByteBuffer out) {
+        out.putInt(nodeCount);
+        for (int tile = 0; tile < isNode.length; tile++) {
+            if (isNode[tile]) {
+                out.putInt(tile);
+            }
+        }
+        out.putInt(corridorCount);
+        for (int corridor = 0; corridor < corridorCount; corridor++) {
+            int[] inner = corridorTiles[corridor];
+            if (inner == null) {
+                out.putInt(-1); // A free slot
+                continue;
+            }
+            out.putInt(inner.length);
+            out.putInt(corridorFirst[corridor]);
+            out.putInt(corridorLast[corridor]);
+            out.putInt(corridorFirstDirection[corridor]);
+            out.putInt(corridorLastDirection[corridor]);
+            out.asIntBuffer().put(inner);
+            out.position(out.position() + inner.length * 4);
+        }
+    }
+
+    /**
+     * Removes the nodes and corridors around the changed tile and traces them again.
+     */
+    @Override
+    public void walkabilityChanged(int x, int y, boolean walkable) {
+        retraceCount = 0;
+        orphanCount = 0;
+        int tile = y * width + x;
+        detach(tile);
+        for (int direction = 0; direction < 4; direction++) {
+            int neighbor = neighbor(tile, direction);
+            if (neighbor >= 0) {
+                detach(neighbor);
+            }
+        }
+
+        reclassify(tile);
+        for (int direction = 0; direction < 4; direction++) {
+            int neighbor = neighbor(tile, direction);
+            if (neighbor >= 0) {
+                reclassify(neighbor);
+            }
+        }
+        for (int i = 0; i < retraceCount; i++) {
+            if (isNode[retrace[i]]) {
+                traceAll(retrace[i]);
+            }
+        }
+        for (int i = 0; i < orphanCount; i++) {
+            int orphan = orphans[i];
+            if (grid.isWalkable(orphan) && !isNode[orphan] && corridorOf[orphan] < 0) {
+                addNode(orphan);
+                traceAll(orphan);
+            }
+        }
+        retraces++;
+    }
+
+    /**
+     * Removes a tile from the graph: a node loses all its corridors, an inner tile its corridor.
+     * The nodes at the other ends and the freed tiles are remembered to be traced again.
+     */
+    private void detach(int tile) {
+        if (isNode[tile]) {
+            for (int direction = 0; direction < 4; direction++) {
+                int corridor = nodeEdges[tile * 4 + direction];
+                if (corridor >= 0) {
+                    removeCorridor(corridor);
+                }
+            }
+            isNode[tile] = false;
+            nodeCount--;
+            addOrphan(tile);
+        } else if (corridorOf[tile] >= 0) {
+            removeCorridor(corridorOf[tile]);
+        }
+    }
+
+    private void reclassify(int tile) {
+        if (grid.isWalkable(tile) && !isNode[tile] && degree(tile) != 2) {
+            addNode(tile);
+            addRetrace(tile);
+        } else {
+            addOrphan(tile);
+        }
+    }
+
+    private void addNode(int tile) {
+        isNode[tile] = true;
+        nodeCount++;
+    }
+
+    private void removeCorridor(int corridor) {
+        int first = corridorFirst[corridor];
+        int last = corridorLast[corridor];
+        nodeEdges[first * 4 + corridorFirstDirection[corridor]] = -1;
+        nodeEdges[last * 4 + corridorLastDirection[corridor]] = -1;
+        addRetrace(first);
+        addRetrace(last);
+        for (int tile : corridorTiles[corridor]) {
+            corridorOf[tile] = -1;
+            addOrphan(tile);
+        }
+        corridorTiles[corridor] = null;
+        if (freeCount == freeCorridors.length) {
+            freeCorridors = Arrays.copyOf(freeCorridors, freeCount * 2);
+        }
+        freeCorridors[freeCount++] = corridor;
+    }
+
+    private void addRetrace(int tile) {
+        if (retraceCount == retrace.length) {
+            retrace = Arrays.copyOf(retrace, retraceCount * 2);
+        }
+        retrace[retraceCount++] = tile;
+    }
+
+    private void addOrphan(int tile) {
+        if (orphanCount == orphans.length) {
+            orphans = Arrays.copyOf(orphans, orphanCount * 2);
+        }
+        orphans[orphanCount++] = tile;
+    }
+
+    private void traceAll(int node) {
+        for (int direction = 0; direction < 4; direction++) {
+            if (nodeEdges[node * 4 + direction] < 0) {
+                trace(node, direction);
+            }
+        }
+    }
+
+    /**
+     * Follows the corridor leaving a node in the given direction up to the next node and stores it.
+     */
+    private void trace(int node, int direction) {
+        int current = neighbor(node, direction);
+        if (current < 0 || !grid.isWalkable(current)) {
+            return;
+        }
+        int previous = node;
+        int length = 0;
+        while (!isNode[current]) {
+            if (length == traceBuffer.length) {
+                traceBuffer = Arrays.copyOf(traceBuffer, length * 2);
+            }
+            traceBuffer[length++] = current;
+            int next = -1;
+            for (int d = 0; d < 4 && next < 0; d++) {
+                int candidate = neighbor(current, d);
+                if (candidate >= 0 && candidate != previous && grid.isWalkable(candidate)) {
+                    next = candidate;
+                }
+            }
+            previous = current;
+            current = next;
+        }
+
+        int corridor = freeCount > 0 ? freeCorridors[--freeCount] : newCorridorSlot();
+        corridorFirst[corridor] = node;
+        corridorLast[corridor] = current;
+        corridorFirstDirection[corridor] = direction;
+        corridorLastDirection[corridor] = directionBetween(current, previous);
+        corridorTiles[corridor] = Arrays.copyOf(traceBuffer, length);
+        for (int i = 0; i < length; i++) {
+            corridorOf[traceBuffer[i]] = corridor;
+            positionOf[traceBuffer[i]] = i + 1;
+        }
+        nodeEdges[node * 4 + direction] = corridor;
+        nodeEdges[current * 4 + corridorLastDirection[corridor]] = corridor;
+    }
+
+    private int newCorridorSlot() {
+        if (corridorCount == corridorFirst.length) {
+            int capacity = corridorCount * 2;
+            corridorFirst = Arrays.copyOf(corridorFirst, capacity);
+            corridorLast = Arrays.copyOf(corridorLast, capacity);
+            corridorFirstDirection = Arrays.copyOf(corridorFirstDirection, capacity);
+            corridorLastDirection = Arrays.copyOf(corridorLastDirection, capacity);
+            corridorTiles = Arrays.copyOf(corridorTiles, capacity);
+        }
+        return corridorCount++;
+    }
+
+    private int degree(int tile) {
+        int count = 0;
+        for (int direction = 0; direction < 4; direction++) {
+            int neighbor = neighbor(tile, direction);
+            if (neighbor >= 0 && grid.isWalkable(neighbor)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the neighbouring tile in a direction.
+     *
+     * @param tile The tile index.
+     * @param direction The direction, 0 to 3 for +x, -x, +y and -y.
+     * @return The index of the neighbour, or -1 if it lies outside the maze.
+     */
+    public int neighbor(int tile, int direction) {
+        int x = tile % width + DIRECTION_X[direction];
+        int y = tile / width + DIRECTION_Y[direction];
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return -1;
+        }
+        return y * width + x;
+    }
+
+    private int directionBetween(int from, int to) {
+        for (int direction = 0; direction < 4; direction++) {
+            if (neighbor(from, direction) == to) {
+                return direction;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isNode(int tile) {
+        return isNode[tile];
+    }
+
+    /**
+     * Gets the corridor leaving a node in a direction.
+     *
+     * @param node The tile index of the node.
+     * @param direction The direction, 0 to 3 for +x, -x, +y and -y.
+     * @return The corridor, or -1 if no corridor leaves the node in that direction.
+     */
+    public int getCorridor(int node, int direction) {
+        return nodeEdges[node * 4 + direction];
+    }
+
+    /**
+     * Gets the corridor an inner corridor tile belongs to.
+     *
+     * @param tile The tile index.
+     * @return The corridor, or -1 if the tile is a node or not walkable.
+     */
+    public int getCorridorOf(int tile) {
+        return corridorOf[tile];
+    }
+
+    /**
+     * Gets the position of an inner corridor tile along its corridor.
+     *
+     * @param tile The tile index.
+     * @return The number of steps from the first node of the corridor to the tile.
+     */
+    public int getPosition(int tile) {
+        return positionOf[tile];
+    }
+
+    public int getFirstNode(int corridor) {
+        return corridorFirst[corridor];
+    }
+
+    public int getLastNode(int corridor) {
+        return corridorLast[corridor];
+    }
+
+    public int getFirstDirection(int corridor) {
+        return corridorFirstDirection[corridor];
+    }
+
+    /**
+     * Gets the number of steps from the first to the last node of a corridor.
+     *
+     * @param corridor The corridor.
+     * @return The length of the corridor.
+     */
+    public int getLength(int corridor) {
+        return corridorTiles[corridor].length + 1;
+    }
+
+    /**
+     * Gets the tile at a position along a corridor.
+     *
+     * @param corridor The corridor.
+     * @param position The number of steps from the first node, from 0 to the length of the corridor.
+     * @return The tile index.
+     */
+    public int getTileAt(int corridor, int position) {
+        if (position == 0) {
+            return corridorFirst[corridor];
+        }
+        int[] tiles = corridorTiles[corridor];
+        return position > tiles.length ? corridorLast[corridor] : tiles[position - 1];
+    }
+
+    public WalkabilityGrid getGrid() {
+        return grid;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Gets the number of tile changes the graph has been repaired for.
+     *
+     * @return The number of local retraces.
+     */
+    public int getRetraces() {
+        return retraces;
+    }
+}
@@ -0,0 +1,210 @@
+package de.tum.cit.ase.maze;
+
+import java.util.Arrays;
+
+/**
+ * Finds shortest paths with A* over the nodes of a shared {@link CorridorGraph} instead of over every tile.
+ * A start or end tile inside a corridor is connected to the two nodes at the ends of its corridor.
+ * Only the first hop of the path (up to the next node, or to the end tile) is expanded back into tiles;
+ * callers search again once they have walked it, which is cheap on the small graph.
+ * Tiles are addressed by their index y * width + x.
+ */
+public class CorridorPathfinder implements Pathfinder {
+    private final CorridorGraph graph;
+    private final WalkabilityGrid grid;
+    private final int width;
+    private final int height;
+
+    // Search state per node, only valid where the stamp matches the current generation
+    private final int[] gCost;
+    private final int[] parent;
+    private final int[] hopCorridor; // Corridor of the hop from the parent
+    private final int[] hopFrom; // Position along that corridor where the hop starts
+    private final int[] hopTo; // Position along that corridor where the hop ends
+    private final int[] hopEntry; // Tile stepped onto before following the corridor, or -1
+    private final int[] openedStamp;
+    private final int[] closedStamp;
+    private int generation;
+    private final IndexedMinHeap openList;
+
+    private int start;
+    private int goal;
+
+    /**
+     * Creates a pathfinder that searches the given corridor graph.
+     *
+     * @param graph The corridor graph of the maze, shared by all corridor pathfinders of the maze.
+     */
+    public CorridorPathfinder(CorridorGraph graph) {
+        this.graph = graph;
+        this.grid = graph.getGrid();
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        int tiles = width * height;
+        this.gCost = new int[tiles];
+        this.parent = new int[tiles];
+        this.hopCorridor = new int[tiles];
+        this.hopFrom = new int[tiles];
+        this.hopTo = new int[tiles];
+        this.hopEntry = new int[tiles];
+        this.openedStamp = new int[tiles];
+        this.closedStamp = new int[tiles];
+        this.openList = new IndexedMinHeap(64);
+    }
+
+    /**
+     * Finds the path towards the end tile, but returns only its first hop: the tiles up to the next
+     * junction or dead end, or up to the end tile if it comes first.
+     */
+    @Override
+    public int findPath(int startX, int startY, int endX, int endY, int[] out) {
+        if (startX < 0 || startY < 0 || startX >= width || startY >= height
+                || endX < 0 || endY < 0 || endX >= width || endY >= height) {
+            return 0;
+        }
+        int from = startY * width + startX;
+        goal = endY * width + endX;
+        if (from == goal || !grid.isWalkable(goal)) {
+            return 0;
+        }
+        return search(from) ? writeFirstHop(out) : 0;
+    }
+
+    /**
+     * Runs A* from the given tile to the end tile.
+     *
+     * @return true if the end tile was reached.
+     */
+    private boolean search(int from) {
+        start = from;
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(openedStamp, 0);
+            Arrays.fill(closedStamp, 0);
+            generation = 1;
+        }
+        openList.clear();
+        gCost[start] = 0;
+        parent[start] = -1;
+        openedStamp[start] = generation;
+        insert(start, 0);
+
+        while (!openList.isEmpty()) {
+            int current = openList.poll();
+            closedStamp[current] = generation;
+            if (current == goal) {
+                return true;
+            }
+            expand(current);
+        }
+        return false;
+    }
+
+    private void expand(int current) {
+        int goalCorridor = graph.isNode(goal) ? -1 : graph.getCorridorOf(goal);
+        if (!grid.isWalkable(current)) {
+            // An enemy may stand on a tile it cannot walk on; it steps off onto one of its neighbours
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbor = graph.neighbor(current, direction);
+                if (neighbor < 0 || !grid.isWalkable(neighbor)) {
+                    continue;
+                }
+                if (graph.isNode(neighbor) || neighbor == goal) {
+                    relax(current, neighbor, neighbor, -1, 0, 0);
+                    continue;
+                }
+                int corridor = graph.getCorridorOf(neighbor);
+                int position = graph.getPosition(neighbor);
+                relax(current, graph.getFirstNode(corridor), neighbor, corridor, position, 0);
+                relax(current, graph.getLastNode(corridor), neighbor, corridor, position, graph.getLength(corridor));
+                if (corridor == goalCorridor) {
+                    relax(current, goal, neighbor, corridor, position, graph.getPosition(goal));
+                }
+            }
+        } else if (graph.isNode(current)) {
+            for (int direction = 0; direction < 4; direction++) {
+                int corridor = graph.getCorridor(current, direction);
+                if (corridor < 0) {
+                    continue;
+                }
+                int length = graph.getLength(corridor);
+                boolean forward = graph.getFirstNode(corridor) == current && graph.getFirstDirection(corridor) == direction;
+                int from = forward ? 0 : length;
+                int to = forward ? length : 0;
+                relax(current, graph.getTileAt(corridor, to), -1, corridor, from, to);
+                if (corridor == goalCorridor) {
+                    relax(current, goal, -1, corridor, from, graph.getPosition(goal));
+                }
+            }
+        } else {
+            // The start tile lies inside a corridor
+            int corridor = graph.getCorridorOf(current);
+            int position = graph.getPosition(current);
+            int length = graph.getLength(corridor);
+            relax(current, graph.getFirstNode(corridor), -1, corridor, position, 0);
+            relax(current, graph.getLastNode(corridor), -1, corridor, position, length);
+            if (corridor == goalCorridor) {
+                relax(current, goal, -1, corridor, position, graph.getPosition(goal));
+            }
+        }
+    }
+
+    private void relax(int current, int node, int entry, int corridor, int from, int to) {
+        if (closedStamp[node] == generation) {
+            return;
+        }
+        int cost = gCost[current] + (entry >= 0 ? 1 : 0) + Math.abs(to - from);
+        if (openedStamp[node] != generation || cost < gCost[node]) {
+            gCost[node] = cost;
+            parent[node] = current;
+            hopEntry[node] = entry;
+            hopCorridor[node] = corridor;
+            hopFrom[node] = from;
+            hopTo[node] = to;
+            openedStamp[node] = generation;
+            insert(node, cost);
+        }
+    }
+
+    private void insert(int node, int cost) {
+        int hCost = Math.abs(node % width - goal % width) + Math.abs(node / width - goal / width);
+        openList.ensureCapacity(node + 1);
+        openList.insertOrUpdate(node, ((long) (cost + hCost) << 32) | hCost);
+    }
+
+    /**
+     * Writes the tiles of the first hop of the path found by the last search.
+     *
+     * @param out The buffer receiving the path.
+     * @return The number of tiles in the hop.
+     */
+    private int writeFirstHop(int[] out) {
+        int node = goal;
+        while (parent[node] != start) {
+            node = parent[node];
+        }
+        int length = 0;
+        if (hopEntry[node] >= 0) {
+            if (out.length > 0) {
+                out[0] = hopEntry[node];
+            }
+            length++;
+        }
+        int corridor = hopCorridor[node];
+        int from = hopFrom[node];
+        int to = hopTo[node];
+        int step = to > from ? 1 : -1;
+        for (int position = from; position != to; length++) {
+            position += step;
+            if (length < out.length) {
+                out[length] = graph.getTileAt(corridor, position);
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+}
@@ -0,0 +1,112 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Buckets the maze elements of a level by their tile, so the elements inside a rectangle, such as the view of the
+ * camera, are found without iterating over every element of the level. Each bucket covers
+ * {@link #CELL_SIZE} x {@link #CELL_SIZE} tiles; empty buckets cost nothing but their slot.
+ * Elements are expected to stay on the tile they were added at.
+ *
+ * @param <T> The type of the elements.
+ */
+public class ElementGrid<T extends MazeElement> {
+    public static final int CELL_SHIFT = 4;
+    public static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    private final int tileSize;
+    private final int cellsX;
+    private final int cellsY;
+    private final Array<T>[] cells;
+    private int size;
+
+    /**
+     * Creates an empty grid for a maze.
+     *
+     * @param width The width of the maze in tiles.
+     * @param height The height of the maze in tiles.
+     * @param tileSize The size of a tile in world units.
+     */
+    @SuppressWarnings("unchecked")
+    public ElementGrid(int width, int height, int tileSize) {
+        this.tileSize = tileSize;
+        this.cellsX = Math.max(1, (width + CELL_SIZE - 1) >> CELL_SHIFT);
+        this.cellsY = Math.max(1, (height + CELL_SIZE - 1) >> CELL_SHIFT);
+        this.cells = new Array[cellsX * cellsY];
+    }
+
+    /**
+     * Adds an element to the bucket of the tile at its position.
+     *
+     * @param element The element to add.
+     */
+    public void add(T element) {
+        int cell = cellOf(element);
+        if (cells[cell] == null) {
+            cells[cell] = new Array<>(false, 8);
+        }
+        cells[cell].add(element);
+        size++;
+    }
+
+    /**
+     * Removes an element from the grid.
+     *
+     * @param element The element to remove.
+     * @return true if the element was in the grid.
+     */
+    public boolean remove(T element) {
+        Array<T> bucket = cells[cellOf(element)];
+        if (bucket != null && bucket.removeValue(element, true)) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    private int cellOf(MazeElement element) {
+        int cellX = Math.min(cellsX - 1, Math.max(0, (int) (element.getX() / tileSize) >> CELL_SHIFT));
+        int cellY = Math.min(cellsY - 1, Math.max(0, (int) (element.getY() / tileSize) >> CELL_SHIFT));
+        return cellY * cellsX + cellX;
+    }
+
+    /**
+     * Collects the elements overlapping a rectangle in world coordinates.
+     *
+     * @param minX The left edge of the rectangle.
+     * @param minY The bottom edge of the rectangle.
+     * @param maxX The right edge of the rectangle.
+     * @param maxY The top edge of the rectangle.
+     * @param out The array the elements are added to; it is not cleared.
+     */
+    public void collect(float minX, float minY, float maxX, float maxY, Array<? super T> out) {
+        int fromX = Math.max(0, (int) Math.floor(minX / tileSize) >> CELL_SHIFT);
+        int fromY = Math.max(0, (int) Math.floor(minY / tileSize) >> CELL_SHIFT);
+        int toX = Math.min(cellsX - 1, (int) Math.floor(maxX / tileSize) >> CELL_SHIFT);
+        int toY = Math.min(cellsY - 1, (int) Math.floor(maxY / tileSize) >> CELL_SHIFT);
+        for (int cellY = fromY; cellY <= toY; cellY++) {
+            for (int cellX = fromX; cellX <= toX; cellX++) {
+                Array<T> bucket = cells[cellY * cellsX + cellX];
+                if (bucket == null) {
+                    continue;
+                }
+                for (int i = 0; i < bucket.size; i++) {
+                    T element = bucket.get(i);
+                    if (element.getX() < maxX && element.getX() + tileSize > minX
+                            && element.getY() < maxY && element.getY() + tileSize > minY) {
+                        out.add(element);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of elements in the grid.
+     *
+     * @return The number of elements.
+     */
+    public int size() {
+        return size;
+    }
+}
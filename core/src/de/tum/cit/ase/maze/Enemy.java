@@ -7,8 +7,6 @@
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Rectangle;
 
-import java.util.List;
-
 import static com.badlogic.gdx.math.MathUtils.random;
 
 public class Enemy extends MazeElement implements Movable {
@@ -19,9 +17,16 @@ public class Enemy extends MazeElement implements Movable {
     private Maze maze;
     private Animation<TextureRegion>[] animations; // Animations for different directions
     private float stateTime; // Time since the animation started
-    private AStar pathfinder;
-    private List<Node> currentPath;
+    private Pathfinder pathfinder; // Created on the first search, enemies following the flow field never need one
+    private int[] currentPath = new int[64]; // Tile indices of the current path, reused between searches
+    private int pathLength;
     private int pathIndex;
+    private PathfindingScheduler scheduler; // Runs searches in the background, null to search on the render thread
+    private PathRequest pathRequest; // Search the enemy is waiting for
+    private PlayerFlowField flowField; // Shared distance map towards the player, null to search paths individually
+    private int waypointTile = -1; // Tile the enemy is currently walking to when following the flow field
+    private int occupiedX; // Tile the enemy is registered on in the occupancy grid of the maze
+    private int occupiedY;
     private final float REACHED_NODE_TOLERANCE = 2.0f;
     private float speed = 40.0f;
 
@@ -49,10 +54,10 @@ public Enemy(TextureRegion texture, int x, int y, Character player, Maze maze, A
         this.maze = maze; // Reference to the maze
         this.animations = animations;
         this.stateTime = 0f;
-        this.pathfinder = new AStar(convertToNodes(maze.getLayout()));
         this.deathAnimation = deathAnimation;
-
-
+        this.occupiedX = x / TILE_SIZE;
+        this.occupiedY = y / TILE_SIZE;
+        maze.getOccupancyGrid().add(occupiedX, occupiedY);
     }
 
     /**
@@ -97,9 +102,7 @@ public void move(Direction direction, Maze maze, float delta) {
         if (collisionType == 0) {
             handleWallCollision();
         } else {
-            maze.setElementAt((int) x / TILE_SIZE, (int) y / TILE_SIZE, -1);
             setPosition(newX, newY);
-            maze.setElementAt((int) x / TILE_SIZE, (int) y / TILE_SIZE, 4);
         }
         if (!isCollisionWithWall(newX, newY, maze, currentDirection)) {
             setPosition(newX, newY);
@@ -126,21 +129,25 @@ public void setPlayer(Character player) {
     }
 
     /**
-     * Converts the maze layout to a grid of nodes for pathfinding.
+     * Sets the flow field the enemy follows while chasing. All chasing enemies of a level share one field,
+     * so none of them needs to search its own path to the player.
      *
-     * @param layout The layout of the maze.
-     * @return A grid of nodes representing the maze.
+     * @param flowField The flow field towards the player, or null to fall back to individual path searches.
      */
-    private Node[][] convertToNodes(int[][] layout) {
-        Node[][] nodes = new Node[layout.length][layout[0].length];
-
-        for (int x = 0; x < layout.length; x++) {
-            for (int y = 0; y < layout[x].length; y++) {
-                nodes[x][y] = new Node(x, y, layout[x][y] == -1);
-            }
-        }
+    public void setFlowField(PlayerFlowField flowField) {
+        this.flowField = flowField;
+        this.waypointTile = -1;
+    }
 
-        return nodes;
+    /**
+     * Sets the scheduler that runs the enemy's path searches on a worker thread. While a search is running,
+     * the enemy waits; it picks the path up on the first update after the scheduler integrated it.
+     *
+     * @param scheduler The pathfinding scheduler of the level, or null to search on the render thread.
+     */
+    public void setScheduler(PathfindingScheduler scheduler) {
+        this.scheduler = scheduler;
+        this.pathRequest = null;
     }
 
     /**
@@ -210,7 +217,7 @@ private boolean isCollisionWithWall(float x, float y, Maze maze, Direction direc
         }
 
         // Check bounds
-        if (gridX < 0 || gridY < 0 || gridX >= maze.getLayout().length || gridY >= maze.getLayout()[0].length) {
+        if (gridX < 0 || gridY < 0 || gridX >= maze.getWidth() || gridY >= maze.getHeight()) {
             return true; // Collision with a wall (out of bounds)
         }
 
@@ -224,25 +231,85 @@ private boolean isCollisionWithWall(float x, float y, Maze maze, Direction direc
      * @param delta The time passed since the last frame.
      */
     private void chase(float delta) {
-        float enemyGridX = x / TILE_SIZE;
-        float enemyGridY = y / TILE_SIZE;
-        float playerGridX = player.getX() / TILE_SIZE;
-        float playerGridY = player.getY() / TILE_SIZE;
+        if (flowField != null) {
+            followFlowField(delta);
+            return;
+        }
+        int enemyGridX = (int) (x / TILE_SIZE);
+        int enemyGridY = (int) (y / TILE_SIZE);
+        int playerGridX = (int) (player.getX() / TILE_SIZE);
+        int playerGridY = (int) (player.getY() / TILE_SIZE);
 
         // Check if the current path needs an update or if it's empty
-        if (currentPath == null || currentPath.isEmpty() || pathIndex >= currentPath.size()) {
-            // Calculate a new path
-            currentPath = pathfinder.findPath(enemyGridX, enemyGridY, playerGridX, playerGridY);
+        if (pathIndex >= pathLength && scheduler != null) {
+            requestPath(enemyGridX, enemyGridY, playerGridX, playerGridY);
+        } else if (pathIndex >= pathLength) {
+            // Calculate a new path, growing the buffer if the path does not fit
+            if (pathfinder == null) {
+                pathfinder = maze.createPathfinder();
+            }
+            pathLength = pathfinder.findPath(enemyGridX, enemyGridY, playerGridX, playerGridY, currentPath);
+            if (pathLength > currentPath.length) {
+                currentPath = new int[Integer.highestOneBit(pathLength) << 1];
+                pathLength = pathfinder.findPath(enemyGridX, enemyGridY, playerGridX, playerGridY, currentPath);
+            }
             pathIndex = 0; // Reset pathIndex to start from the beginning
         }
         followPath(delta);
     }
 
+    /**
+     * Asks the scheduler for a path to the player, or takes over the path once the request is ready.
+     *
+     * @param enemyGridX The x-coordinate of the enemy's tile.
+     * @param enemyGridY The y-coordinate of the enemy's tile.
+     * @param playerGridX The x-coordinate of the player's tile.
+     * @param playerGridY The y-coordinate of the player's tile.
+     */
+    private void requestPath(int enemyGridX, int enemyGridY, int playerGridX, int playerGridY) {
+        if (pathRequest == null) {
+            pathRequest = scheduler.request(enemyGridX, enemyGridY, playerGridX, playerGridY);
+        }
+        if (pathRequest != null && pathRequest.isReady()) {
+            int[] path = pathRequest.getPath();
+            pathRequest = null; // A dropped result is simply requested again on the next update
+            if (path != null) {
+                if (path.length > currentPath.length) {
+                    currentPath = new int[Integer.highestOneBit(path.length) << 1];
+                }
+                System.arraycopy(path, 0, currentPath, 0, path.length);
+                pathLength = path.length;
+                pathIndex = 0;
+            }
+        }
+    }
+
+    /**
+     * Moves the enemy along the shared flow field. The next tile is only looked up once the current
+     * waypoint is reached, so the enemy always moves along the grid instead of cutting corners.
+     *
+     * @param delta The time passed since the last frame.
+     */
+    private void followFlowField(float delta) {
+        int width = flowField.getWidth();
+        if (waypointTile < 0) {
+            waypointTile = flowField.nextStep((int) (x / TILE_SIZE), (int) (y / TILE_SIZE));
+        } else if (reachedNode((waypointTile % width) * TILE_SIZE, (waypointTile / width) * TILE_SIZE)) {
+            waypointTile = flowField.nextStep(waypointTile % width, waypointTile / width);
+        }
+        if (waypointTile >= 0) {
+            moveTowards((waypointTile % width) * TILE_SIZE, (waypointTile / width) * TILE_SIZE, delta);
+        }
+    }
+
     /**
      * Marks the enemy as dead and starts playing the death animation.
      */
 
     public void die() {
+        if (!isDead) {
+            maze.getOccupancyGrid().remove(occupiedX, occupiedY);
+        }
         isDead = true;
         deathAnimationTime = 0; // Reset the animation timer
     }
@@ -344,7 +411,7 @@ private void handleWallCollision() {
 
 
     /**
-     * Updates the enemy's position and its bounding box.
+     * Updates the enemy's position, its bounding box and its tile in the occupancy grid of the maze.
      *
      * @param newX The new X-coordinate of the enemy.
      * @param newY The new Y-coordinate of the enemy.
@@ -353,6 +420,13 @@ public void setPosition(float newX, float newY) {
         this.x = newX;
         this.y = newY;
         this.bounds.setPosition(newX, newY);
+        int tileX = (int) newX / TILE_SIZE;
+        int tileY = (int) newY / TILE_SIZE;
+        if (!isDead && (tileX != occupiedX || tileY != occupiedY)) {
+            maze.getOccupancyGrid().move(occupiedX, occupiedY, tileX, tileY);
+            occupiedX = tileX;
+            occupiedY = tileY;
+        }
     }
 
     /**
@@ -377,8 +451,10 @@ public void update(float delta) {
         // Check if the player has entered the enemy's grid
         if (playerEntersGrid() && currentState != EnemyState.CHASING) {
             currentState = EnemyState.CHASING;
-            currentPath = null;
+            pathLength = 0;
             pathIndex = 0;
+            waypointTile = -1;
+            pathRequest = null;
         } else if (!playerEntersGrid() && currentState != EnemyState.PATROLLING) {
             currentState = EnemyState.PATROLLING;
         }
@@ -434,10 +510,11 @@ private float distanceSquared(float x1, float y1, float x2, float y2) {
      * @param delta The time passed since the last frame.
      */
     private void followPath(float delta) {
-        if (currentPath != null && pathIndex < currentPath.size()) {
-            Node nextNode = currentPath.get(pathIndex);
-            int targetX = nextNode.x * TILE_SIZE;
-            int targetY = nextNode.y * TILE_SIZE;
+        if (pathIndex < pathLength) {
+            int nextTile = currentPath[pathIndex];
+            int width = maze.getWalkabilityGrid().getWidth();
+            int targetX = (nextTile % width) * TILE_SIZE;
+            int targetY = (nextTile / width) * TILE_SIZE;
 
             moveTowards(targetX, targetY, delta);
             if (reachedNode(targetX, targetY)) {
@@ -0,0 +1,155 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Keeps the maze elements of a level in one dense array per kind, so the passes of a frame only iterate the
+ * elements they act on instead of every element of the level:
+ * <ul>
+ *     <li>animated tiles: traps and lava, updated and drawn while in view,</li>
+ *     <li>enemies: updated every frame and checked against the player,</li>
+ *     <li>interactables: keys and chests, which the player picks up or opens; each type has its own array.</li>
+ * </ul>
+ * An element is sorted into its array once when it is added. The elements that stay on their tile are also
+ * bucketed in an {@link ElementGrid} per kind, so the ones in view are found without iterating over the whole level.
+ * Walls, the entry and the exit are drawn by the {@link StaticTileLayer} and have no elements; only the position
+ * of the entry is kept, where the player starts.
+ */
+public class EntityRegistry {
+    private final Array<AnimatedElement> animatedTiles = new Array<>(false, 64);
+    private final Array<Enemy> enemies = new Array<>(false, 16);
+    private final Array<Key> keys = new Array<>(false, 1);
+    private final Array<Chest> chests = new Array<>(false, 16);
+    private final ElementGrid<AnimatedElement> animatedTileGrid;
+    private final ElementGrid<Key> keyGrid;
+    private final ElementGrid<Chest> chestGrid;
+    private boolean hasEntry;
+    private float entryX;
+    private float entryY;
+
+    /**
+     * Creates an empty registry for a maze.
+     *
+     * @param width The width of the maze in tiles.
+     * @param height The height of the maze in tiles.
+     * @param tileSize The size of a tile in world units.
+     */
+    public EntityRegistry(int width, int height, int tileSize) {
+        this.animatedTileGrid = new ElementGrid<>(width, height, tileSize);
+        this.keyGrid = new ElementGrid<>(width, height, tileSize);
+        this.chestGrid = new ElementGrid<>(width, height, tileSize);
+    }
+
+    /**
+     * Adds an element to the array of its kind.
+     *
+     * @param element The element to add.
+     * @throws IllegalArgumentException If the element is a static tile, which has no kind.
+     */
+    public void add(MazeElement element) {
+        if (element instanceof Enemy enemy) {
+            enemies.add(enemy);
+        } else if (element instanceof Key key) {
+            keys.add(key);
+            keyGrid.add(key);
+        } else if (element instanceof Chest chest) {
+            chests.add(chest);
+            chestGrid.add(chest);
+        } else if (element instanceof AnimatedElement tile) {
+            animatedTiles.add(tile);
+            animatedTileGrid.add(tile);
+        } else {
+            throw new IllegalArgumentException("Static tiles are drawn by the static tile layer: " + element);
+        }
+    }
+
+    /**
+     * Sets where the player starts. Only the first entry of a level is used.
+     *
+     * @param x The x-coordinate of the entry in world units.
+     * @param y The y-coordinate of the entry in world units.
+     */
+    public void addEntry(float x, float y) {
+        if (!hasEntry) {
+            hasEntry = true;
+            entryX = x;
+            entryY = y;
+        }
+    }
+
+    /**
+     * Collects the animated tiles overlapping a rectangle in world coordinates.
+     *
+     * @param minX The left edge of the rectangle.
+     * @param minY The bottom edge of the rectangle.
+     * @param maxX The right edge of the rectangle.
+     * @param maxY The top edge of the rectangle.
+     * @param out The array the tiles are added to; it is not cleared.
+     */
+    public void collectAnimatedTiles(float minX, float minY, float maxX, float maxY, Array<? super AnimatedElement> out) {
+        animatedTileGrid.collect(minX, minY, maxX, maxY, out);
+    }
+
+    /**
+     * Collects the keys overlapping a rectangle in world coordinates.
+     *
+     * @param minX The left edge of the rectangle.
+     * @param minY The bottom edge of the rectangle.
+     * @param maxX The right edge of the rectangle.
+     * @param maxY The top edge of the rectangle.
+     * @param out The array the keys are added to; it is not cleared.
+     */
+    public void collectKeys(float minX, float minY, float maxX, float maxY, Array<? super Key> out) {
+        keyGrid.collect(minX, minY, maxX, maxY, out);
+    }
+
+    /**
+     * Collects the chests overlapping a rectangle in world coordinates.
+     *
+     * @param minX The left edge of the rectangle.
+     * @param minY The bottom edge of the rectangle.
+     * @param maxX The right edge of the rectangle.
+     * @param maxY The top edge of the rectangle.
+     * @param out The array the chests are added to; it is not cleared.
+     */
+    public void collectChests(float minX, float minY, float maxX, float maxY, Array<? super Chest> out) {
+        chestGrid.collect(minX, minY, maxX, maxY, out);
+    }
+
+    public boolean hasEntry() {
+        return hasEntry;
+    }
+
+    public float getEntryX() {
+        return entryX;
+    }
+
+    public float getEntryY() {
+        return entryY;
+    }
+
+    /**
+     * Gets the number of elements of all kinds.
+     *
+     * @return The number of elements.
+     */
+    public int size() {
+        return animatedTiles.size + enemies.size + keys.size + chests.size;
+    }
+
+    public Array<AnimatedElement> getAnimatedTiles() {
+        return animatedTiles;
+    }
+
+    public Array<Enemy> getEnemies() {
+        return enemies;
+    }
+
+    public Array<Key> getKeys() {
+        return keys;
+    }
+
+    public Array<Chest> getChests() {
+        return chests;
+    }
+}
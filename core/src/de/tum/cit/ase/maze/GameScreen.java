@@ -7,6 +7,7 @@
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.ScreenUtils;
 
@@ -25,8 +26,25 @@ public class GameScreen implements Screen {
 
     private float sinusInput = 0f;
 
-    private Array<MazeElement> mazeElements;
+    private EntityRegistry entities; // The maze elements of the level, one array per kind
+    private StaticTileLayer staticLayer; // Floor, walls, entry and exit, drawn from cached chunks
+    // Elements in the view of the camera, collected every frame
+    private final Array<AnimatedElement> visibleTiles = new Array<>(false, 256);
+    private final Array<Key> visibleKeys = new Array<>(false, 4);
+    private final Array<Chest> visibleChests = new Array<>(false, 16);
+
+    // Part of the world inside the view of the camera, updated every frame
+    private float viewMinX;
+    private float viewMinY;
+    private float viewMaxX;
+    private float viewMaxY;
+    private int tilesInView; // Tiles inside the view of the camera, drawn from the chunks of the static layer
+    private int drawnElements; // Maze elements submitted to the sprite batch in the last frame
+    private int batchRenderCalls; // Draw calls of the sprite batch in the last frame, one per texture switch or flush
+    private boolean showRenderStats;
     private Character playerCharacter; // The player-controlled character
+    private PlayerFlowField playerFlowField; // Shared by all chasing enemies
+    private PathfindingScheduler pathfindingScheduler; // Runs the path searches of enemies without a flow field
 
     private HUD hud;
 
@@ -42,8 +60,15 @@ public GameScreen(MazeRunnerGame game) {
         this.game = game;
         this.maze = game.getMaze();
 
-        this.mazeElements = new Array<>();
         this.collectibles = new Array<>(); // Initialize the collectibles array
+        this.entities = new EntityRegistry(maze.getWidth(), maze.getHeight(), 16);
+        this.staticLayer = new StaticTileLayer(maze, 16);
+        maze.getOccupancyGrid().clear(); // Enemies of an earlier run of the level are gone
+        if (maze.getPathfinderType() == PathfinderType.FLOW_FIELD) {
+            this.playerFlowField = new PlayerFlowField(maze.getWalkabilityGrid());
+        } else {
+            this.pathfindingScheduler = new PathfindingScheduler(maze);
+        }
         this.loadMazeElements();
 
 
@@ -72,16 +97,22 @@ public GameScreen(MazeRunnerGame game) {
 
     /**
      * Loads maze elements based on the maze layout. Converts each type in the layout
-     * into a corresponding MazeElement instance and adds it to the mazeElements array.
+     * into a corresponding MazeElement instance and adds it to the entity registry.
      */
     private void loadMazeElements() {
-        int[][] layout = game.getMaze().getLayout();
-        for (int i = 0; i < layout.length; i++) {
-            for (int j = 0; j < layout[i].length; j++) {
-                MazeElement element = createElementFromType(layout[i][j], i, j);
-                if (element != null) {
-                    mazeElements.add(element);
-                }
+        // The tiles were collected when the level was loaded; only the textures are created here
+        LevelData level = game.getLevel();
+        if (level == null || level.getMaze() != maze) {
+            level = LevelData.of(maze);
+        }
+        for (int i = 0; i < level.getSpawnCount(); i++) {
+            int type = level.getSpawnType(i);
+            if (type == 1) { // Entry point, where the player starts
+                entities.addEntry(level.getSpawnX(i) * 16, level.getSpawnY(i) * 16);
+            }
+            MazeElement element = createElementFromType(type, level.getSpawnX(i), level.getSpawnY(i));
+            if (element != null) {
+                entities.add(element);
             }
         }
     }
@@ -91,8 +122,7 @@ private void loadMazeElements() {
      * It also binds the player character to the camera and handles enemy-player interactions initialization.
      */
     private void initializePlayerCharacter() {
-        EntryPoint entryPoint = findEntryPoint();
-        if (entryPoint != null) {
+        if (entities.hasEntry()) {
             int initialLives = 5; // Number of lives for the character
             Animation<TextureRegion>[] unarmedAnimations = new Animation[]{
                     game.getCharacterDownAnimation(),
@@ -106,75 +136,43 @@ private void initializePlayerCharacter() {
                     game.getCharacterRightAnimationArmed(),
                     game.getCharacterUpAnimationArmed()
             };
-            playerCharacter = new Character(entryPoint.getX(), entryPoint.getY(), initialLives, unarmedAnimations, armedAnimations, camera);
-            Gdx.app.log("GameScreen", "Character initialized at (" + entryPoint.getX() + ", " + entryPoint.getY() + ")");
+            playerCharacter = new Character(entities.getEntryX(), entities.getEntryY(), initialLives, unarmedAnimations, armedAnimations, camera);
+            Gdx.app.log("GameScreen", "Character initialized at (" + entities.getEntryX() + ", " + entities.getEntryY() + ")");
         }else {
-            Gdx.app.error("GameScreen", "Entry point not found, character not initialized");
-        }
-        for (MazeElement element : mazeElements) {
-            if (element instanceof Enemy) {
-                ((Enemy) element).setPlayer(playerCharacter);
-            }
+            throw new IllegalStateException("Entry point not found in the maze.");
         }
-    }
-
-    /**
-     * Finds the entry point element from the maze elements.
-     * @return The entry point element.
-     */
-    private EntryPoint findEntryPoint() {
-        for (MazeElement element : mazeElements) {
-            if (element instanceof EntryPoint) {
-                return (EntryPoint) element;
-            }
+        for (Enemy enemy : entities.getEnemies()) {
+            enemy.setPlayer(playerCharacter);
+            enemy.setFlowField(playerFlowField);
+            enemy.setScheduler(pathfindingScheduler);
         }
-        throw new IllegalStateException("Entry point not found in the maze.");
     }
 
     /**
      * Creates and returns a MazeElement based on the type parameter. This method
      * uses the maze layout information to instantiate different types of maze elements
-     * like walls, floors, enemies, etc.
+     * like traps, enemies, keys, etc. The floor, walls, the entry and the exit are drawn by the
+     * static tile layer and get no element.
      *
      * @param type The type of maze element to create.
      * @param x The x-coordinate of the maze element in the maze grid.
      * @param y The y-coordinate of the maze element in the maze grid.
-     * @return A MazeElement instance corresponding to the given type.
+     * @return A MazeElement instance corresponding to the given type, or null for static tiles.
      */
     private MazeElement createElementFromType(int type, int x, int y) {
         // The x and y coordinates might need to be adjusted or scaled
         // depending on your game's coordinate system and tile size.
         final int tileSize = 16; // Example tile size, adjust as needed.
-        // Create an array of animations for the enemy
-        @SuppressWarnings("unchecked")
-        Animation<TextureRegion>[] enemyAnimations = new Animation[] {
-                game.getEnemyDownAnimation(),
-                game.getEnemyLeftAnimation(),
-                game.getEnemyRightAnimation(),
-                game.getEnemyUpAnimation()
-        };
-        Animation<TextureRegion> deathAnimation = game.loadEnemyDeathAnimation();
 
         switch (type) {
-            case -1: // Floor
-                return new Floor(MazeRunnerGame.getFloorTextureRegion(), x * tileSize, y * tileSize);
-
-            case 0: // Wall
-                return new Wall(MazeRunnerGame.getWallTextureRegion(),x * tileSize, y * tileSize);
-
-            case 1: // Entry point
-                return new EntryPoint(MazeRunnerGame.getEntryPointTextureRegion(),x * tileSize, y * tileSize);
-
-            case 2: // Exit
-                return new Exit(MazeRunnerGame.getExitTextureRegion(),x * tileSize, y * tileSize);
-
             case 3: // Trap
                 Animation<TextureRegion> trapAnimation = game.loadTrapAnimation();
                 return new Trap(trapAnimation, x * tileSize, y * tileSize);
 
             case 4: // Enemy (dynamic obstacle)
-
-                return new Enemy(MazeRunnerGame.getEnemyTextureRegion(),x * tileSize, y * tileSize,playerCharacter,maze,enemyAnimations,deathAnimation);
+                // The animations are shared by all enemies; each enemy only keeps its state time
+                Animation<TextureRegion> deathAnimation = game.loadEnemyDeathAnimation();
+                return new Enemy(MazeRunnerGame.getEnemyTextureRegion(),x * tileSize, y * tileSize,playerCharacter,maze,game.getEnemyAnimations(),deathAnimation);
 
             case 5: // Key
                 Animation<TextureRegion> keyAnimation = game.loadKeyAnimation();
@@ -186,7 +184,7 @@ private MazeElement createElementFromType(int type, int x, int y) {
                 return new Chest(MazeRunnerGame.getClosedChestTextureRegion(), MazeRunnerGame.getOpenChestTextureRegion(),x * tileSize, y * tileSize,game,this);
 
             default:
-                return null; // For undefined types, return null
+                return null; // For static tiles and undefined types, return null
         }
     }
 
@@ -228,6 +226,11 @@ public void render(float delta) {
         // Updating camera to center on the character
         camera.position.set(playerCharacter.getX(), playerCharacter.getY(), 0);
         camera.update();
+        // Load the chunks of large levels before the player and nearby enemies reach them
+        float viewRadius = Math.max(camera.viewportWidth, camera.viewportHeight) * camera.zoom / 2 + TileStore.CHUNK_SIZE * 16;
+        game.getMaze().getTileStore().prefetch(
+                (int) ((camera.position.x - viewRadius) / 16), (int) ((camera.position.y - viewRadius) / 16),
+                (int) ((camera.position.x + viewRadius) / 16), (int) ((camera.position.y + viewRadius) / 16));
         // Handling input for character movement
         if (Gdx.input.isKeyPressed(Input.Keys.LEFT)) {
             playerCharacter.move(Direction.LEFT, game.getMaze(), delta);
@@ -239,49 +242,57 @@ public void render(float delta) {
             playerCharacter.move(Direction.DOWN, game.getMaze(),delta);
         }
         playerCharacter.update(Gdx.graphics.getDeltaTime());
+        // Only queues repairs when the player entered another tile
+        if (playerFlowField != null) {
+            playerFlowField.retarget((int) (playerCharacter.getX() / 16), (int) (playerCharacter.getY() / 16));
+        }
+        // Hand finished path searches to the enemies before they update
+        if (pathfindingScheduler != null) {
+            pathfindingScheduler.integrateResults(PathfindingScheduler.FRAME_BUDGET_NANOS);
+        }
 
         game.getSpriteBatch().setProjectionMatrix(camera.combined);
         handleInput(delta);
         updateCollectibles(delta);
 
 
+        // Only the tiles and elements inside the view of the camera are drawn
+        updateView();
+        staticLayer.render(camera.combined, viewMinX, viewMinY, viewMaxX, viewMaxY); // One draw call per chunk
+        int fromX = Math.max(0, (int) Math.floor(viewMinX / 16));
+        int fromY = Math.max(0, (int) Math.floor(viewMinY / 16));
+        int toX = Math.min(maze.getWidth() - 1, (int) Math.floor(viewMaxX / 16));
+        int toY = Math.min(maze.getHeight() - 1, (int) Math.floor(viewMaxY / 16));
+        tilesInView = Math.max(0, toX - fromX + 1) * Math.max(0, toY - fromY + 1);
+
         game.getSpriteBatch().begin(); // needs to be called before drawing anything
-        for (int i = 0; i < game.getMaze().getLayout().length; i++) {
-            for (int j = 0; j < game.getMaze().getLayout()[0].length; j++) {
-                game.getSpriteBatch().draw(
-                        MazeRunnerGame.getFloorTextureRegion(),
-                        i * 16,
-                        j * 16
-                );
-            }
-        }
 
-        for (MazeElement element : mazeElements) {
-            // Updating and drawing specific types of elements
-            if (element instanceof Enemy enemy) {
-                enemy.update(delta);
-                enemy.draw(game.getSpriteBatch());} else
-            if (element instanceof Trap trap) {
-                trap.update(Gdx.graphics.getDeltaTime());
-                trap.draw(game.getSpriteBatch());
-            } else if (element instanceof Lava lava) {
-                lava.update(delta);
-                lava.draw(game.getSpriteBatch());
-            } else if (element instanceof Key key && !playerCharacter.hasKey()) {
+        // Each pass only iterates the elements of one kind; walls, the entry and the exit are in the static layer
+        visibleTiles.clear();
+        entities.collectAnimatedTiles(viewMinX, viewMinY, viewMaxX, viewMaxY, visibleTiles);
+        for (AnimatedElement tile : visibleTiles) {
+            tile.update(delta);
+            tile.draw(game.getSpriteBatch());
+        }
+        visibleKeys.clear();
+        if (!playerCharacter.hasKey()) {
+            entities.collectKeys(viewMinX, viewMinY, viewMaxX, viewMaxY, visibleKeys);
+            for (Key key : visibleKeys) {
                 key.update(delta); // Update the key animation if the player doesn't have the key
                 key.draw(game.getSpriteBatch());
-            } else if (element instanceof Exit exit) {
-                exit.draw(game.getSpriteBatch());
-            } else if (element instanceof Wall wall) {
-                wall.draw(game.getSpriteBatch());
             }
-            else if (element instanceof EntryPoint) {
-                EntryPoint entryPoint = (EntryPoint) element;
-                entryPoint.draw(game.getSpriteBatch());
-            }
-            else if (element instanceof Chest) {
-                Chest chest = (Chest) element;
-                chest.draw(game.getSpriteBatch());
+        }
+        visibleChests.clear();
+        entities.collectChests(viewMinX, viewMinY, viewMaxX, viewMaxY, visibleChests);
+        for (Chest chest : visibleChests) {
+            chest.draw(game.getSpriteBatch());
+        }
+        drawnElements = visibleTiles.size + visibleKeys.size + visibleChests.size;
+        for (Enemy enemy : entities.getEnemies()) {
+            enemy.update(delta); // Enemies keep moving outside the view
+            if (isVisible(enemy)) {
+                enemy.draw(game.getSpriteBatch());
+                drawnElements++;
             }
         }
         for (Collectible collectible : collectibles) {
@@ -296,13 +307,14 @@ else if (element instanceof Chest) {
         }
 
         game.getSpriteBatch().end(); // Important to call this after drawing everything
+        batchRenderCalls = game.getSpriteBatch().renderCalls;
         hud.updateHearts(playerCharacter.getLives(), game.getFullHeartTexture(), game.getEmptyHeartTexture());
         hud.updateInvincibilityTimer(playerCharacter.getInvulnerabilityTimer());
         if (playerCharacter.getLives() <= 0) {
             game.showGameOverScreen();
         }
 
-        playerCharacter.updateStatus(game.getMaze(), mazeElements);
+        playerCharacter.updateStatus(game.getMaze(), entities.getEnemies());
         hud.updateKey(Gdx.graphics.getDeltaTime(), playerCharacter.hasKey());
         hud.updateExit(playerCharacter.hasReachedExit());
         playerCharacter.update(Gdx.graphics.getDeltaTime());// Update character status based on current position in the maze
@@ -310,10 +322,53 @@ else if (element instanceof Chest) {
         if (playerCharacter.hasKey() && maze.checkCollision(playerCharacter.getBounds(), true) ==22 ) {
             game.showVictoryScreen();
         }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) {
+            showRenderStats = !showRenderStats;
+        }
+        hud.updateRenderStats(showRenderStats, tilesInView, maze.getWidth() * maze.getHeight(),
+                drawnElements, entities.size(), staticLayer.getDrawnChunks(), batchRenderCalls);
         hud.draw();
         }
     }
 
+    /**
+     * Updates the rectangle of the world inside the view of the camera from the corners of its frustum.
+     */
+    private void updateView() {
+        Vector3[] corners = camera.frustum.planePoints;
+        viewMinX = viewMaxX = corners[0].x;
+        viewMinY = viewMaxY = corners[0].y;
+        for (Vector3 corner : corners) {
+            viewMinX = Math.min(viewMinX, corner.x);
+            viewMinY = Math.min(viewMinY, corner.y);
+            viewMaxX = Math.max(viewMaxX, corner.x);
+            viewMaxY = Math.max(viewMaxY, corner.y);
+        }
+    }
+
+    private boolean isVisible(MazeElement element) {
+        return element.getX() < viewMaxX && element.getX() + 16 > viewMinX
+                && element.getY() < viewMaxY && element.getY() + 16 > viewMinY;
+    }
+
+    /**
+     * Gets the number of tiles inside the view of the camera in the last frame.
+     *
+     * @return The number of tiles in view.
+     */
+    public int getTilesInView() {
+        return tilesInView;
+    }
+
+    /**
+     * Gets the number of maze elements drawn in the last frame.
+     *
+     * @return The number of drawn elements.
+     */
+    public int getDrawnElements() {
+        return drawnElements;
+    }
+
     /**
      * Handles user input to control the player character and interact with the game world.
      *
@@ -321,21 +376,18 @@ else if (element instanceof Chest) {
      */
     private void handleInput(float delta) {
         if (Gdx.input.isKeyJustPressed(Input.Keys.SPACE)) {
-            for (MazeElement element : mazeElements) {
-                if (element instanceof Chest) {
-                    Chest chest = (Chest) element;
-                    // Log before attempting to open the chest
-                    Gdx.app.log("handleInput", "Attempting to open chest at position (" + chest.getX() + ", " + chest.getY() + ")");
-                    if (playerCharacter.getBounds().overlaps(chest.getBounds()) && !chest.isOpened()) {
-                        try {
-                            chest.open();
-                            // Log successful opening
-                            Gdx.app.log("handleInput", "Chest opened successfully.");
-                            break; // Assuming one interaction per key press
-                        } catch (Exception e) {
-                            // Log the exception with as much detail as possible
-                            Gdx.app.error("handleInput", "Error opening chest at (" + chest.getX() + ", " + chest.getY() + "): " + e.getMessage(), e);
-                        }
+            for (Chest chest : entities.getChests()) {
+                // Log before attempting to open the chest
+                Gdx.app.log("handleInput", "Attempting to open chest at position (" + chest.getX() + ", " + chest.getY() + ")");
+                if (playerCharacter.getBounds().overlaps(chest.getBounds()) && !chest.isOpened()) {
+                    try {
+                        chest.open();
+                        // Log successful opening
+                        Gdx.app.log("handleInput", "Chest opened successfully.");
+                        break; // Assuming one interaction per key press
+                    } catch (Exception e) {
+                        // Log the exception with as much detail as possible
+                        Gdx.app.error("handleInput", "Error opening chest at (" + chest.getX() + ", " + chest.getY() + "): " + e.getMessage(), e);
                     }
                 }
             }
@@ -391,6 +443,13 @@ public void hide() {
 
     @Override
     public void dispose() {
+        if (pathfindingScheduler != null) {
+            pathfindingScheduler.dispose();
+        }
+        if (playerFlowField != null) {
+            playerFlowField.dispose();
+        }
+        staticLayer.dispose();
     }
 
     public MazeRunnerGame getGame() {
@@ -417,8 +476,8 @@ public float getSinusInput() {
         return sinusInput;
     }
 
-    public Array<MazeElement> getMazeElements() {
-        return mazeElements;
+    public EntityRegistry getEntities() {
+        return entities;
     }
 
     public Character getPlayerCharacter() {
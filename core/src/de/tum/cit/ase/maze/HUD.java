@@ -28,6 +28,7 @@ public class HUD {
     private float stateTime = 0;
     private Label messageLabel; // Add a Label for displaying messages
     private Label invincibilityLabel; // Label for displaying invincibility countdown
+    private Label renderStatsLabel; // Label for displaying how much of the level is drawn, toggled with F3
 
 
     /**
@@ -88,6 +89,12 @@ public HUD(TextureRegion fullHeart, TextureRegion emptyHeart, Animation<TextureR
         invincibilityLabel.setAlignment(Align.center);
         stage.addActor(invincibilityLabel);
 
+        // Initialize the render statistics label
+        renderStatsLabel = new Label("", labelStyle);
+        renderStatsLabel.setPosition(20, 20);
+        renderStatsLabel.setVisible(false);
+        stage.addActor(renderStatsLabel);
+
 
 
     }
@@ -119,6 +126,28 @@ public void updateInvincibilityTimer(float invincibilityTime) {
     }
 
 
+    /**
+     * Updates the display of how many tiles were in view and how many elements were drawn, out of all of the level.
+     *
+     * @param visible Whether the statistics are shown.
+     * @param tilesInView The number of tiles inside the view of the camera in the last frame.
+     * @param totalTiles The number of tiles in the level.
+     * @param drawnElements The number of maze elements drawn in the last frame.
+     * @param totalElements The number of maze elements in the level.
+     * @param drawnChunks The number of cached tile chunks drawn in the last frame.
+     * @param batchRenderCalls The number of draw calls of the sprite batch in the last frame.
+     */
+    public void updateRenderStats(boolean visible, int tilesInView, int totalTiles, int drawnElements, int totalElements,
+                                  int drawnChunks, int batchRenderCalls) {
+        renderStatsLabel.setVisible(visible);
+        if (visible) {
+            renderStatsLabel.setText("Tiles in view: " + tilesInView + "/" + totalTiles
+                    + "  Elements drawn: " + drawnElements + "/" + totalElements
+                    + "  Tile chunks: " + drawnChunks
+                    + "  Draw calls: " + (drawnChunks + batchRenderCalls));
+        }
+    }
+
     /**
      * Updates the display of player lives in the HUD based on the current number of lives.
      *
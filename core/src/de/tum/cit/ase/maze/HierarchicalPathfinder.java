@@ -0,0 +1,319 @@
+package de.tum.cit.ase.maze;
+
+import java.util.Arrays;
+
+/**
+ * Implements hierarchical pathfinding (HPA*) on top of a shared {@link ClusterGraph}.
+ * The start and end tiles are connected to the entrances of their clusters, the search runs over the entrances,
+ * and only the first legs of the resulting abstract path are refined into tiles. The returned path therefore
+ * usually stops a few clusters ahead; callers search again once they have walked it, which is cheap because
+ * the abstract graph is small. Paths are near-optimal: they may take slightly longer routes than A* would.
+ * Tiles are addressed by their index y * width + x.
+ */
+public class HierarchicalPathfinder implements Pathfinder {
+    private static final int REFINE_AHEAD_BORDERS = 2; // Cluster borders crossed before a partial path is returned
+
+    private final ClusterGraph graph;
+    private final WalkabilityGrid grid;
+    private final int width;
+    private final int height;
+
+    // Abstract search state per tile, only valid where the stamp matches the current generation
+    private final int[] gCost;
+    private final int[] parent;
+    private final int[] openedStamp;
+    private final int[] closedStamp;
+    private int generation;
+    private final IndexedMinHeap openList;
+
+    private final BoundedSearch startSearch; // From the start tile through its cluster
+    private final BoundedSearch goalSearch; // From the end tile through its cluster
+    private final BoundedSearch legSearch; // Refines one leg of the abstract path
+    private int[] abstractPath = new int[32];
+    private int[] refinedPath = new int[64];
+    private final int[] blockedNeighbors = new int[4]; // Neighbours of a blocked start tile, reused between searches
+    private final boolean[] blockedInside = new boolean[4];
+
+    private int start;
+    private int goal;
+    private int startCluster;
+    private int goalCluster;
+
+    /**
+     * Creates a pathfinder that searches the given abstract graph.
+     *
+     * @param graph The abstract graph of the maze, shared by all hierarchical pathfinders of the maze.
+     */
+    public HierarchicalPathfinder(ClusterGraph graph) {
+        this.graph = graph;
+        this.grid = graph.getGrid();
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        int tiles = width * height;
+        this.gCost = new int[tiles];
+        this.parent = new int[tiles];
+        this.openedStamp = new int[tiles];
+        this.closedStamp = new int[tiles];
+        this.openList = new IndexedMinHeap(64);
+        int clusterSize = graph.getClusterSize();
+        this.startSearch = new BoundedSearch(grid, clusterSize, clusterSize);
+        this.goalSearch = new BoundedSearch(grid, clusterSize, clusterSize);
+        this.legSearch = new BoundedSearch(grid, clusterSize, clusterSize);
+    }
+
+    /**
+     * Finds a path towards the end tile. Unlike the flat pathfinders this may return only the first part of the path,
+     * ending a few clusters ahead of the start.
+     */
+    @Override
+    public int findPath(int startX, int startY, int endX, int endY, int[] out) {
+        if (startX < 0 || startY < 0 || startX >= width || startY >= height
+                || endX < 0 || endY < 0 || endX >= width || endY >= height) {
+            return 0;
+        }
+        start = startY * width + startX;
+        goal = endY * width + endX;
+        if (start == goal || !grid.isWalkable(goal)) {
+            return 0;
+        }
+        graph.ensureClean();
+        if (grid.isWalkable(start)) {
+            return copyPath(searchFrom(start, 0), out);
+        }
+
+        // An enemy may stand on a tile it cannot walk on. Its cluster might then not reach any entrance,
+        // so the search continues from the walkable neighbours instead, the closest to the end tile first.
+        int blockedStart = start;
+        int[] neighbors = blockedNeighbors;
+        boolean[] inside = blockedInside;
+        neighbors[0] = blockedStart + 1;
+        neighbors[1] = blockedStart - 1;
+        neighbors[2] = blockedStart + width;
+        neighbors[3] = blockedStart - width;
+        inside[0] = startX + 1 < width;
+        inside[1] = startX > 0;
+        inside[2] = startY + 1 < height;
+        inside[3] = startY > 0;
+        for (int attempt = 0; attempt < neighbors.length; attempt++) {
+            int best = -1;
+            for (int i = 0; i < neighbors.length; i++) {
+                if (inside[i] && grid.isWalkable(neighbors[i])
+                        && (best < 0 || manhattan(neighbors[i]) < manhattan(neighbors[best]))) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                return 0;
+            }
+            inside[best] = false;
+            ensureRefinedCapacity(1);
+            refinedPath[0] = neighbors[best];
+            if (neighbors[best] == goal) {
+                return copyPath(1, out);
+            }
+            int length = searchFrom(neighbors[best], 1);
+            if (length > 1) {
+                return copyPath(length, out);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Searches from a walkable start tile and appends the refined path to refinedPath.
+     *
+     * @param from The start tile.
+     * @param offset The number of tiles already in refinedPath.
+     * @return The number of tiles in refinedPath, or offset if the end tile is unreachable.
+     */
+    private int searchFrom(int from, int offset) {
+        start = from;
+        startCluster = graph.clusterOf(start);
+        goalCluster = graph.clusterOf(goal);
+
+        if (startCluster == goalCluster) {
+            // A path inside the cluster needs no abstract search
+            searchCluster(legSearch, startCluster, start, goal);
+            int length = legSearch.distance(goal);
+            if (length > 0) {
+                ensureRefinedCapacity(offset + length);
+                legSearch.pathTo(goal, refinedPath, offset);
+                return offset + length;
+            }
+        }
+
+        searchCluster(startSearch, startCluster, start, -1);
+        searchCluster(goalSearch, goalCluster, goal, -1);
+        int legs = searchAbstract();
+        if (legs == 0) {
+            return offset;
+        }
+        return refine(legs, offset);
+    }
+
+    private int manhattan(int tile) {
+        return Math.abs(tile % width - goal % width) + Math.abs(tile / width - goal / width);
+    }
+
+    private void searchCluster(BoundedSearch search, int cluster, int source, int target) {
+        search.search(graph.clusterX(cluster), graph.clusterY(cluster),
+                graph.clusterWidth(cluster), graph.clusterHeight(cluster), source, target);
+    }
+
+    /**
+     * Runs A* over the entrances, with the start and end tiles temporarily connected to their clusters.
+     *
+     * @return The number of legs in the abstract path, stored in abstractPath, or 0 if the end is unreachable.
+     */
+    private int searchAbstract() {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(openedStamp, 0);
+            Arrays.fill(closedStamp, 0);
+            generation = 1;
+        }
+        openList.clear();
+        gCost[start] = 0;
+        parent[start] = -1;
+        openedStamp[start] = generation;
+        insert(start, 0);
+
+        while (!openList.isEmpty()) {
+            int current = openList.poll();
+            closedStamp[current] = generation;
+            if (current == goal) {
+                return retraceAbstract();
+            }
+            expand(current);
+        }
+        return 0;
+    }
+
+    private void expand(int current) {
+        int cost = gCost[current];
+        int cluster = graph.clusterOf(current);
+        int[] clusterEntrances = graph.getEntrances(cluster);
+
+        if (current == start) {
+            for (int entrance : clusterEntrances) {
+                int distance = startSearch.distance(entrance);
+                if (distance > 0) {
+                    relax(current, entrance, cost + distance);
+                }
+            }
+        } else {
+            int index = graph.getEntranceIndex(current);
+            for (int j = 0; j < clusterEntrances.length; j++) {
+                int distance = graph.getDistance(cluster, index, j);
+                if (distance > 0) {
+                    relax(current, clusterEntrances[j], cost + distance);
+                }
+            }
+        }
+        if (cluster == goalCluster) {
+            int distance = current == start ? startSearch.distance(goal) : goalSearch.distance(current);
+            if (distance > 0) {
+                relax(current, goal, cost + distance);
+            }
+        }
+
+        // Entrances on the other side of a cluster border are one step away
+        if (graph.getEntranceIndex(current) >= 0) {
+            int x = current % width;
+            int y = current / width;
+            if (x + 1 < width) relaxAcrossBorder(current, cluster, current + 1, cost);
+            if (x > 0) relaxAcrossBorder(current, cluster, current - 1, cost);
+            if (y + 1 < height) relaxAcrossBorder(current, cluster, current + width, cost);
+            if (y > 0) relaxAcrossBorder(current, cluster, current - width, cost);
+        }
+    }
+
+    private void relaxAcrossBorder(int current, int cluster, int neighbor, int cost) {
+        if (graph.clusterOf(neighbor) != cluster && graph.getEntranceIndex(neighbor) >= 0) {
+            relax(current, neighbor, cost + 1);
+        }
+    }
+
+    private void relax(int current, int node, int cost) {
+        if (closedStamp[node] == generation) {
+            return;
+        }
+        if (openedStamp[node] != generation || cost < gCost[node]) {
+            gCost[node] = cost;
+            parent[node] = current;
+            openedStamp[node] = generation;
+            insert(node, cost);
+        }
+    }
+
+    private void insert(int node, int cost) {
+        int hCost = manhattan(node);
+        openList.ensureCapacity(node + 1);
+        openList.insertOrUpdate(node, ((long) (cost + hCost) << 32) | hCost);
+    }
+
+    private int retraceAbstract() {
+        int nodes = 0;
+        for (int node = goal; node != -1; node = parent[node]) {
+            nodes++;
+        }
+        if (abstractPath.length < nodes) {
+            abstractPath = new int[Integer.highestOneBit(nodes) << 1];
+        }
+        int index = nodes - 1;
+        for (int node = goal; node != -1; node = parent[node]) {
+            abstractPath[index--] = node;
+        }
+        return nodes - 1;
+    }
+
+    /**
+     * Turns the first legs of the abstract path into tiles, stopping after a few cluster borders.
+     *
+     * @param legs The number of legs in the abstract path.
+     * @param offset The number of tiles already in refinedPath.
+     * @return The number of tiles in refinedPath.
+     */
+    private int refine(int legs, int offset) {
+        int length = offset;
+        int bordersCrossed = 0;
+        for (int leg = 0; leg < legs && bordersCrossed < REFINE_AHEAD_BORDERS; leg++) {
+            int from = abstractPath[leg];
+            int to = abstractPath[leg + 1];
+            int cluster = graph.clusterOf(from);
+
+            if (graph.clusterOf(to) != cluster) {
+                ensureRefinedCapacity(length + 1);
+                refinedPath[length++] = to;
+                bordersCrossed++;
+            } else if (from == start) {
+                ensureRefinedCapacity(length + startSearch.distance(to));
+                length += startSearch.pathTo(to, refinedPath, length);
+            } else if (to == goal) {
+                ensureRefinedCapacity(length + goalSearch.distance(from));
+                length += goalSearch.pathToSource(from, refinedPath, length);
+            } else {
+                searchCluster(legSearch, cluster, from, to);
+                ensureRefinedCapacity(length + legSearch.distance(to));
+                length += legSearch.pathTo(to, refinedPath, length);
+            }
+        }
+        return length;
+    }
+
+    private void ensureRefinedCapacity(int capacity) {
+        if (refinedPath.length < capacity) {
+            refinedPath = Arrays.copyOf(refinedPath, Integer.highestOneBit(capacity) << 1);
+        }
+    }
+
+    private int copyPath(int length, int[] out) {
+        System.arraycopy(refinedPath, 0, out, 0, Math.min(length, out.length));
+        return length;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+}
@@ -0,0 +1,188 @@
+package de.tum.cit.ase.maze;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap over integer ids with a long priority per id.
+ * Every id knows its position in the heap, so priorities can be lowered (or raised) in place
+ * and ids can be removed in O(log n) without searching. Used as the open set of the grid pathfinders.
+ */
+public class IndexedMinHeap {
+    private int[] heap; // Ids in heap order
+    private long[] keys; // Priority of each id, indexed by id
+    private int[] positions; // Position of each id in the heap plus one, or 0 if not queued
+    private int size;
+
+    /**
+     * Creates a heap that can hold the ids 0 to capacity - 1.
+     *
+     * @param capacity The number of distinct ids the heap must support.
+     */
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[Math.max(capacity, 1)];
+        this.keys = new long[Math.max(capacity, 1)];
+        this.positions = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Grows the heap so that it can hold the ids 0 to capacity - 1.
+     *
+     * @param capacity The number of distinct ids the heap must support.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > positions.length) {
+            int newCapacity = Math.max(capacity, positions.length * 2);
+            heap = Arrays.copyOf(heap, newCapacity);
+            keys = Arrays.copyOf(keys, newCapacity);
+            positions = Arrays.copyOf(positions, newCapacity);
+        }
+    }
+
+    /**
+     * Removes all ids from the heap. Runs in time proportional to the number of queued ids.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = 0;
+        }
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the given id is currently queued.
+     *
+     * @param id The id to check.
+     * @return true if the id is in the heap, false otherwise.
+     */
+    public boolean contains(int id) {
+        return positions[id] != 0;
+    }
+
+    /**
+     * Queues the id with the given priority, or changes its priority if it is already queued.
+     *
+     * @param id The id to queue.
+     * @param key The priority of the id; lower values are polled first.
+     */
+    public void insertOrUpdate(int id, long key) {
+        int position = positions[id] - 1;
+        if (position < 0) {
+            keys[id] = key;
+            heap[size] = id;
+            positions[id] = size + 1;
+            siftUp(size++);
+        } else if (key < keys[id]) {
+            keys[id] = key;
+            siftUp(position);
+        } else if (key > keys[id]) {
+            keys[id] = key;
+            siftDown(position);
+        }
+    }
+
+    /**
+     * Returns the priority of the id on top of the heap without removing it.
+     *
+     * @return The smallest queued priority, or Long.MAX_VALUE if the heap is empty.
+     */
+    public long peekKey() {
+        return size == 0 ? Long.MAX_VALUE : keys[heap[0]];
+    }
+
+    /**
+     * Returns the id on top of the heap without removing it.
+     *
+     * @return The id with the smallest priority, or -1 if the heap is empty.
+     */
+    public int peek() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    /**
+     * Removes and returns the id with the smallest priority.
+     *
+     * @return The id with the smallest priority, or -1 if the heap is empty.
+     */
+    public int poll() {
+        if (size == 0) {
+            return -1;
+        }
+        int top = heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    /**
+     * Removes the id from the heap if it is queued.
+     *
+     * @param id The id to remove.
+     */
+    public void remove(int id) {
+        int position = positions[id] - 1;
+        if (position >= 0) {
+            removeAt(position);
+        }
+    }
+
+    private void removeAt(int position) {
+        int removed = heap[position];
+        positions[removed] = 0;
+        size--;
+        if (position == size) {
+            return;
+        }
+        int last = heap[size];
+        heap[position] = last;
+        positions[last] = position + 1;
+        siftDown(position);
+        siftUp(positions[last] - 1);
+    }
+
+    private void siftUp(int position) {
+        int id = heap[position];
+        long key = keys[id];
+        while (position > 0) {
+            int parentPosition = (position - 1) >>> 1;
+            int parent = heap[parentPosition];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[position] = parent;
+            positions[parent] = position + 1;
+            position = parentPosition;
+        }
+        heap[position] = id;
+        positions[id] = position + 1;
+    }
+
+    private void siftDown(int position) {
+        int id = heap[position];
+        long key = keys[id];
+        int half = size >>> 1;
+        while (position < half) {
+            int childPosition = 2 * position + 1;
+            int child = heap[childPosition];
+            int rightPosition = childPosition + 1;
+            if (rightPosition < size && keys[heap[rightPosition]] < keys[child]) {
+                childPosition = rightPosition;
+                child = heap[childPosition];
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            heap[position] = child;
+            positions[child] = position + 1;
+            position = childPosition;
+        }
+        heap[position] = id;
+        positions[id] = position + 1;
+    }
+}
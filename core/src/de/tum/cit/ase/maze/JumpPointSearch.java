@@ -0,0 +1,211 @@
+package de.tum.cit.ase.maze;
+
+import java.util.Arrays;
+
+/**
+ * Implements Jump Point Search for a uniform-cost grid with movement in the four cardinal directions.
+ * Instead of opening every tile, the search jumps along straight lines and only stops on tiles where
+ * the shortest path might have to turn: the goal, tiles with a forced neighbour and, when moving vertically,
+ * tiles from which a horizontal scan finds such a tile. The open set only ever holds these jump points.
+ * Tiles are addressed by their index y * width + x.
+ */
+public class JumpPointSearch implements Pathfinder {
+    private final WalkabilityGrid grid;
+    private final int width;
+    private final int height;
+
+    // Search state per jump point, only valid where the stamp matches the current generation
+    private final int[] gCost;
+    private final int[] parent;
+    private final int[] openedStamp;
+    private final int[] closedStamp;
+    private int generation;
+
+    private final IndexedMinHeap openList;
+    private int goal;
+
+    /**
+     * Creates a pathfinder over the given walkability grid.
+     *
+     * @param grid The walkability grid representing the search area.
+     */
+    public JumpPointSearch(WalkabilityGrid grid) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        int tiles = width * height;
+        this.gCost = new int[tiles];
+        this.parent = new int[tiles];
+        this.openedStamp = new int[tiles];
+        this.closedStamp = new int[tiles];
+        this.openList = new IndexedMinHeap(tiles);
+    }
+
+    @Override
+    public int findPath(int startX, int startY, int endX, int endY, int[] out) {
+        if (!inBounds(startX, startY) || !inBounds(endX, endY)) {
+            return 0;
+        }
+        int start = startY * width + startX;
+        goal = endY * width + endX;
+        if (start == goal || !grid.isWalkable(goal)) {
+            return 0;
+        }
+
+        nextGeneration();
+        openList.clear();
+
+        gCost[start] = 0;
+        parent[start] = -1;
+        openedStamp[start] = generation;
+        openList.insertOrUpdate(start, priority(0, heuristic(start)));
+
+        while (!openList.isEmpty()) {
+            int current = openList.poll();
+            closedStamp[current] = generation;
+
+            if (current == goal) {
+                return retracePath(start, out);
+            }
+
+            int x = current % width;
+            int y = current / width;
+            int from = parent[current];
+            if (from < 0) {
+                // The start tile has no direction of arrival, so every direction is searched
+                identifySuccessor(current, jumpHorizontal(x, y, 1));
+                identifySuccessor(current, jumpHorizontal(x, y, -1));
+                identifySuccessor(current, jumpVertical(x, y, 1));
+                identifySuccessor(current, jumpVertical(x, y, -1));
+            } else if (from / width == y) {
+                // Arrived horizontally: keep going and turn only where a neighbour is forced
+                int dx = x > from % width ? 1 : -1;
+                identifySuccessor(current, jumpHorizontal(x, y, dx));
+                if (isForced(x, y + 1, x - dx, y + 1)) identifySuccessor(current, jumpVertical(x, y, 1));
+                if (isForced(x, y - 1, x - dx, y - 1)) identifySuccessor(current, jumpVertical(x, y, -1));
+            } else {
+                // Arrived vertically: keep going and scan both horizontal directions
+                int dy = y > from / width ? 1 : -1;
+                identifySuccessor(current, jumpVertical(x, y, dy));
+                identifySuccessor(current, jumpHorizontal(x, y, 1));
+                identifySuccessor(current, jumpHorizontal(x, y, -1));
+            }
+        }
+
+        return 0; // Return empty path if no path is found
+    }
+
+    /**
+     * Opens a jump point or lowers its cost if the current jump point offers a cheaper way to reach it.
+     */
+    private void identifySuccessor(int current, int jumpPoint) {
+        if (jumpPoint < 0 || closedStamp[jumpPoint] == generation) {
+            return;
+        }
+        int newCost = gCost[current] + distance(current, jumpPoint);
+        if (openedStamp[jumpPoint] != generation || newCost < gCost[jumpPoint]) {
+            gCost[jumpPoint] = newCost;
+            parent[jumpPoint] = current;
+            openedStamp[jumpPoint] = generation;
+            int hCost = heuristic(jumpPoint);
+            openList.insertOrUpdate(jumpPoint, priority(newCost + hCost, hCost));
+        }
+    }
+
+    /**
+     * Moves horizontally from the given tile until reaching a jump point or a blocked tile.
+     *
+     * @return The index of the jump point, or -1 if the scan ran into a wall.
+     */
+    private int jumpHorizontal(int x, int y, int dx) {
+        while (true) {
+            x += dx;
+            if (!grid.isWalkable(x, y)) {
+                return -1;
+            }
+            int tile = y * width + x;
+            if (tile == goal
+                    || isForced(x, y + 1, x - dx, y + 1)
+                    || isForced(x, y - 1, x - dx, y - 1)) {
+                return tile;
+            }
+        }
+    }
+
+    /**
+     * Moves vertically from the given tile until reaching a jump point or a blocked tile.
+     * Every tile on the way is a jump point if a horizontal scan from it finds one.
+     *
+     * @return The index of the jump point, or -1 if the scan ran into a wall.
+     */
+    private int jumpVertical(int x, int y, int dy) {
+        while (true) {
+            y += dy;
+            if (!grid.isWalkable(x, y)) {
+                return -1;
+            }
+            int tile = y * width + x;
+            if (tile == goal || jumpHorizontal(x, y, 1) >= 0 || jumpHorizontal(x, y, -1) >= 0) {
+                return tile;
+            }
+        }
+    }
+
+    /**
+     * A neighbour is forced if it is walkable but the tile next to it on the side we came from is not,
+     * so the only short way to reach it leads through the current tile.
+     */
+    private boolean isForced(int neighborX, int neighborY, int behindX, int behindY) {
+        return grid.isWalkable(neighborX, neighborY) && !grid.isWalkable(behindX, behindY);
+    }
+
+    /**
+     * Expands the chain of jump points into single tiles and writes them into the buffer.
+     */
+    private int retracePath(int start, int[] out) {
+        int length = gCost[goal];
+        int index = length - 1;
+        for (int jumpPoint = goal; jumpPoint != start; jumpPoint = parent[jumpPoint]) {
+            int from = parent[jumpPoint];
+            int step = jumpPoint / width == from / width
+                    ? (jumpPoint > from ? 1 : -1)
+                    : (jumpPoint > from ? width : -width);
+            for (int tile = jumpPoint; tile != from; tile -= step, index--) {
+                if (index < out.length) {
+                    out[index] = tile;
+                }
+            }
+        }
+        return length;
+    }
+
+    private void nextGeneration() {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(openedStamp, 0);
+            Arrays.fill(closedStamp, 0);
+            generation = 1;
+        }
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    private int distance(int a, int b) {
+        return Math.abs(a % width - b % width) + Math.abs(a / width - b / width);
+    }
+
+    private int heuristic(int tile) {
+        return distance(tile, goal);
+    }
+
+    private static long priority(int fCost, int hCost) {
+        return ((long) fCost << 32) | hCost;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+}
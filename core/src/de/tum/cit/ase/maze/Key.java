@@ -7,10 +7,7 @@
  * Represents a key object in the game world. The key can be collected by the player to unlock doors or achieve objectives.
  * This class handles the animation and rendering of the key on the game screen.
  */
-public class Key extends MazeElement {
-    private Animation<TextureRegion> animation;
-
-    private float stateTime;
+public class Key extends AnimatedElement {
 
     /**
      * Constructs a key element with a specified animation and position.
@@ -20,17 +17,6 @@ public class Key extends MazeElement {
      * @param y The y-coordinate of the key's initial position.
      */
     public Key(Animation<TextureRegion> animation, int x, int y) {
-        super(animation.getKeyFrame(0), x, y, 16, 16);
-        this.animation = animation;
-        stateTime = 0f; // Initialize stateTime
-    }
-    /**
-     * Updates the key's animation frame based on the time elapsed. This method should be called in each frame.
-     *
-     * @param delta The time in seconds since the last update.
-     */
-    public void update(float delta) {
-        stateTime += delta; // Update the stateTime
-        setTexture(animation.getKeyFrame(stateTime, true));
+        super(animation, x, y, 16, 16);
     }
 }
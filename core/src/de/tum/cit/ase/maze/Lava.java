@@ -6,9 +6,7 @@
  * Represents a lava obstacle in the game world.
  * This class manages the animation and rendering of the lava on the game screen.
  */
-public class Lava extends MazeElement {
-    private Animation<TextureRegion> animation;
-    private float stateTime;
+public class Lava extends AnimatedElement {
 
     /**
      * Constructs a lava element with a specified animation and position.
@@ -18,19 +16,6 @@ public class Lava extends MazeElement {
      * @param y The y-coordinate of the lava's initial position.
      */
     public Lava(Animation<TextureRegion> animation, int x, int y) {
-        super(animation.getKeyFrame(0), x, y,16,16);// Call to the parent class constructor with the first frame of the animation
-        this.animation = animation;
-        stateTime = 0f; // Initialize stateTime
-    }
-
-    /**
-     * Updates the lava's animation frame based on the time elapsed. This method should be called in each frame
-     * to ensure the animation is smooth and continuous.
-     *
-     * @param delta The time in seconds since the last update.
-     */
-    public void update(float delta) {
-        stateTime += delta; // Update the stateTime
-        setTexture(animation.getKeyFrame(stateTime, true));
+        super(animation, x, y,16,16);// Call to the parent class constructor, which shows the first frame of the animation
     }
 }
@@ -0,0 +1,296 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps precompiled levels on disk, so opening a level again skips parsing, validation and building the indexes.
+ * An entry holds the packed tiles, the walkability bits, the spawn list, the connectivity labels and, for levels
+ * that use the corridor pathfinder, the corridor graph. Entries are named after the SHA-256 hash of the level file,
+ * so an edited file simply misses the cache, and the least recently used entries beyond {@link #MAX_ENTRIES}
+ * are deleted.
+ * <p>
+ * An entry starts with the magic bytes "MZCA", the format version, flags, the width and height of the maze and
+ * a CRC32 checksum of everything after the header. Damaged or outdated entries are deleted and rebuilt.
+ * Only .properties levels are cached; binary levels are already read without parsing and load their tiles lazily.
+ */
+public class LevelCache {
+    public static final String EXTENSION = "levelcache";
+    public static final int MAX_ENTRIES = 16;
+    public static final int MAX_CACHED_TILES = 1 << 22; // Larger levels would write hundreds of megabytes
+    // Increment whenever the entry layout or the meaning of the cached indexes changes, for example the walkable types
+    private static final int VERSION = 1;
+    private static final int MAGIC = 0x4D5A4341; // "MZCA"
+    private static final int HEADER_SIZE = 20;
+    private static final int SOLVABLE = 1;
+    private static final int HAS_CORRIDORS = 2;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final File directory;
+
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a cache in a directory, which is created when the first entry is written.
+     *
+     * @param directory The directory holding the entries.
+     */
+    public LevelCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the cache directory of the game in the user's cache directory of the operating system.
+     *
+     * @return The directory for level cache entries.
+     */
+    public static File getDefaultDirectory() {
+        String os = System.getProperty("os.name", "").toLowerCase();
+        String home = System.getProperty("user.home");
+        File base;
+        if (os.contains("win")) {
+            String localAppData = System.getenv("LOCALAPPDATA");
+            base = localAppData != null ? new File(localAppData) : new File(home, "AppData/Local");
+        } else if (os.contains("mac")) {
+            base = new File(home, "Library/Caches");
+        } else {
+            String cacheHome = System.getenv("XDG_CACHE_HOME");
+            base = cacheHome != null && !cacheHome.isEmpty() ? new File(cacheHome) : new File(home, ".cache");
+        }
+        return new File(base, "maze-runner/levels");
+    }
+
+    /**
+     * Checks whether a level file is cached at all.
+     *
+     * @param file The level file.
+     * @return true for .properties levels, false for binary levels.
+     */
+    public static boolean accepts(FileHandle file) {
+        return !BinaryMazeFile.isBinary(file);
+    }
+
+    /**
+     * Computes the key of a level file from its contents.
+     *
+     * @param file The level file.
+     * @return The SHA-256 hash of the file as hexadecimal string.
+     * @throws IOException If the file cannot be read.
+     */
+    public static String hash(FileHandle file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 is not available.", e);
+        }
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream input = file.read()) {
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder key = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            key.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+        return key.toString();
+    }
+
+    private File entryFile(String hash) {
+        return new File(directory, hash + "." + EXTENSION);
+    }
+
+    /**
+     * Reads the cached level of a file.
+     *
+     * @param file The level file, which the returned level is tied to.
+     * @param hash The key of the file, see {@link #hash(FileHandle)}.
+     * @param lastModified The modification time of the file when its hash was computed.
+     * @param length The length of the file when its hash was computed.
+     * @return The level, or null if it is not cached or the entry cannot be used.
+     */
+    public LevelData read(FileHandle file, String hash, long lastModified, long length) {
+        File entry = entryFile(hash);
+        if (!entry.isFile()) {
+            misses++;
+            return null;
+        }
+        try {
+            ByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(entry.toPath(), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            LevelData level = read(file, lastModified, length, buffer);
+            entry.setLastModified(System.currentTimeMillis()); // Marks the entry as recently used
+            hits++;
+            return level;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            System.err.println("Discarding level cache entry " + entry.getName() + ": " + e.getMessage());
+            entry.delete();
+            misses++;
+            return null;
+        }
+    }
+
+    private static LevelData read(FileHandle file, long lastModified, long length, ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a level cache entry.");
+        }
+        if (buffer.getShort() != VERSION) {
+            throw new IOException("Outdated format version.");
+        }
+        int flags = buffer.getShort();
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (width <= 0 || height <= 0 || (long) width * height > MAX_CACHED_TILES) {
+            throw new IOException("Invalid maze size " + width + "x" + height + ".");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Checksum mismatch.");
+        }
+
+        byte[] key = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(key);
+        PathfinderType pathfinderType = PathfinderType.valueOf(new String(key, StandardCharsets.UTF_8));
+        int spawnCount = buffer.getInt();
+        if (spawnCount < 0 || spawnCount > width * height) {
+            throw new IOException("Invalid spawn count " + spawnCount + ".");
+        }
+        int[] spawns = new int[spawnCount * 3];
+        buffer.asIntBuffer().get(spawns);
+        buffer.position(buffer.position() + spawns.length * 4);
+        byte[] tiles = new byte[width * height];
+        buffer.get(tiles);
+
+        WalkabilityGrid grid = WalkabilityGrid.readFrom(width, height, buffer);
+        ConnectivityIndex connectivity = ConnectivityIndex.readFrom(grid, buffer);
+        CorridorGraph corridors = (flags & HAS_CORRIDORS) != 0 ? CorridorGraph.readFrom(grid, buffer) : null;
+        if (buffer.hasRemaining()) {
+            throw new IOException("Unexpected data after the indexes.");
+        }
+        Maze maze = new Maze(TileStore.fromTiles(width, height, tiles), pathfinderType, grid, connectivity, corridors,
+                (flags & SOLVABLE) != 0);
+        return new LevelData(file, lastModified, length, maze, spawns, spawnCount);
+    }
+
+    /**
+     * Writes a freshly loaded level to the cache. Levels larger than {@link #MAX_CACHED_TILES} are not cached.
+     * Failing to write only costs the next load its speed, so errors are reported and otherwise ignored.
+     *
+     * @param hash The key of the level file, see {@link #hash(FileHandle)}.
+     * @param level The level; its maze must not have been changed since it was loaded.
+     */
+    public void write(String hash, LevelData level) {
+        Maze maze = level.getMaze();
+        if ((long) maze.getWidth() * maze.getHeight() > MAX_CACHED_TILES) {
+            return;
+        }
+        boolean hasCorridors = maze.getPathfinderType() == PathfinderType.CORRIDOR;
+        CorridorGraph corridors = hasCorridors ? maze.getCorridorGraph() : null; // Built here, off the render thread
+        byte[] key = maze.getPathfinderType().name().getBytes(StandardCharsets.UTF_8);
+
+        long size = HEADER_SIZE + 2L + key.length + 4L + level.getSpawnCount() * 12L
+                + (long) maze.getWidth() * maze.getHeight()
+                + maze.getWalkabilityGrid().getSerializedSize()
+                + maze.getConnectivityIndex().getSerializedSize()
+                + (hasCorridors ? corridors.getSerializedSize() : 0);
+        if (size > Integer.MAX_VALUE) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) VERSION);
+        buffer.putShort((short) ((maze.isSolvable() ? SOLVABLE : 0) | (hasCorridors ? HAS_CORRIDORS : 0)));
+        buffer.putInt(maze.getWidth());
+        buffer.putInt(maze.getHeight());
+        buffer.putInt(0); // Checksum, filled in below
+
+        buffer.putShort((short) key.length);
+        buffer.put(key);
+        buffer.putInt(level.getSpawnCount());
+        for (int i = 0; i < level.getSpawnCount(); i++) {
+            buffer.putInt(level.getSpawnX(i));
+            buffer.putInt(level.getSpawnY(i));
+            buffer.putInt(level.getSpawnType(i));
+        }
+        buffer.put(maze.getTileStore().toArray());
+        maze.getWalkabilityGrid().writeTo(buffer);
+        maze.getConnectivityIndex().writeTo(buffer);
+        if (hasCorridors) {
+            corridors.writeTo(buffer);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, buffer.position() - HEADER_SIZE);
+        buffer.putInt(HEADER_SIZE - 4, (int) crc.getValue());
+
+        try {
+            Files.createDirectories(directory.toPath());
+            // Written next to the entry and moved into place, so another running game never reads half an entry
+            File temporary = File.createTempFile(hash, ".tmp", directory);
+            try {
+                Files.write(temporary.toPath(), Arrays.copyOf(buffer.array(), buffer.position()));
+                try {
+                    Files.move(temporary.toPath(), entryFile(hash).toPath(),
+                            StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporary.toPath(), entryFile(hash).toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                temporary.delete();
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing level cache entry: " + e.getMessage());
+            return;
+        }
+        prune();
+    }
+
+    /**
+     * Deletes the least recently used entries beyond {@link #MAX_ENTRIES}.
+     */
+    private void prune() {
+        File[] entries = directory.listFiles((dir, name) -> name.endsWith("." + EXTENSION));
+        if (entries == null || entries.length <= MAX_ENTRIES) {
+            return;
+        }
+        Arrays.sort(entries, Comparator.comparingLong(File::lastModified).reversed());
+        for (int i = MAX_ENTRIES; i < entries.length; i++) {
+            entries[i].delete();
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,167 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * A level prepared for play: the loaded maze and the list of tiles that become maze elements.
+ * Everything in it is built without touching OpenGL, so it can be prepared on a background thread;
+ * only creating the elements with their textures is left to the {@link GameScreen} on the render thread.
+ */
+public class LevelData {
+    private final FileHandle file;
+    private final long lastModified; // Identifies the version of the file the level was loaded from
+    private final long length;
+    private final Maze maze;
+    private final int[] spawns; // (x, y, type) triples of every tile that becomes a maze element
+    private final int spawnCount;
+
+    LevelData(FileHandle file, long lastModified, long length, Maze maze, int[] spawns, int spawnCount) {
+        this.file = file;
+        this.lastModified = lastModified;
+        this.length = length;
+        this.maze = maze;
+        this.spawns = spawns;
+        this.spawnCount = spawnCount;
+    }
+
+    /**
+     * Loads a level file and collects its elements. Checks for cancellation between the steps.
+     *
+     * @param file The level file, in the .properties or the binary format.
+     * @param progress Receives the share of the work done, from 0 to 1; may be null.
+     * @return The prepared level, or null if the file does not hold a valid maze.
+     * @throws CancellationException If the loading thread was interrupted.
+     */
+    public static LevelData load(FileHandle file, LoadProgress progress) {
+        return load(file, null, progress);
+    }
+
+    /**
+     * Loads a level file from the level cache, or loads it from the file and stores it in the cache.
+     * Checks for cancellation between the steps.
+     *
+     * @param file The level file, in the .properties or the binary format.
+     * @param cache The cache of precompiled levels; may be null.
+     * @param progress Receives the share of the work done, from 0 to 1; may be null.
+     * @return The prepared level, or null if the file does not hold a valid maze.
+     * @throws CancellationException If the loading thread was interrupted.
+     */
+    public static LevelData load(FileHandle file, LevelCache cache, LoadProgress progress) {
+        long lastModified = file.lastModified();
+        long length = file.length();
+        String hash = null;
+        if (cache != null && LevelCache.accepts(file)) {
+            try {
+                hash = LevelCache.hash(file);
+            } catch (IOException e) {
+                System.err.println("Error hashing maze file: " + e.getMessage());
+            }
+        }
+        report(progress, 0.05f);
+        if (hash != null) {
+            LevelData cached = cache.read(file, hash, lastModified, length);
+            if (cached != null) {
+                report(progress, 1);
+                return cached;
+            }
+        }
+        checkCancelled();
+        Maze maze = new Maze(file);
+        if (!maze.isValid()) {
+            return null;
+        }
+        report(progress, 0.7f);
+        LevelData level = fromMaze(file, lastModified, length, maze, progress);
+        if (hash != null) {
+            cache.write(hash, level);
+        }
+        return level;
+    }
+
+    private static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Loading of the level was cancelled.");
+        }
+    }
+
+    /**
+     * Collects the elements of a maze that is already loaded, for example to restart the current level.
+     *
+     * @param maze The maze.
+     * @return The prepared level, which is not tied to a file.
+     */
+    public static LevelData of(Maze maze) {
+        return fromMaze(null, 0, 0, maze, null);
+    }
+
+    private static LevelData fromMaze(FileHandle file, long lastModified, long length, Maze maze, LoadProgress progress) {
+        int[] spawns = new int[3 * 64];
+        int count = 0;
+        for (int y = 0; y < maze.getHeight(); y++) {
+            checkCancelled();
+            for (int x = 0; x < maze.getWidth(); x++) {
+                int type = maze.getElementAt(x, y);
+                if (type == -1) {
+                    continue; // The floor is drawn by the screen, not by elements
+                }
+                if (count * 3 == spawns.length) {
+                    spawns = Arrays.copyOf(spawns, spawns.length * 2);
+                }
+                spawns[count * 3] = x;
+                spawns[count * 3 + 1] = y;
+                spawns[count * 3 + 2] = type;
+                count++;
+            }
+            report(progress, 0.7f + 0.3f * (y + 1) / maze.getHeight());
+        }
+        return new LevelData(file, lastModified, length, maze, spawns, count);
+    }
+
+    private static void report(LoadProgress progress, float done) {
+        if (progress != null) {
+            progress.setProgress(done);
+        }
+    }
+
+    /**
+     * Checks whether the level still matches its file, which changes its modification time or length when edited.
+     *
+     * @return true if the file is unchanged since the level was loaded.
+     */
+    public boolean isCurrent() {
+        return file != null && file.exists() && file.lastModified() == lastModified && file.length() == length;
+    }
+
+    public FileHandle getFile() {
+        return file;
+    }
+
+    public Maze getMaze() {
+        return maze;
+    }
+
+    /**
+     * Gets the number of tiles that become maze elements.
+     *
+     * @return The number of spawns.
+     */
+    public int getSpawnCount() {
+        return spawnCount;
+    }
+
+    public int getSpawnX(int i) {
+        return spawns[i * 3];
+    }
+
+    public int getSpawnY(int i) {
+        return spawns[i * 3 + 1];
+    }
+
+    public int getSpawnType(int i) {
+        return spawns[i * 3 + 2];
+    }
+}
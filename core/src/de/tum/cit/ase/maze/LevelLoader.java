@@ -0,0 +1,218 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads levels on a background thread, so a big level never freezes the window, and keeps the last few loaded
+ * levels so opening the same file again is instant. A cached level is used as long as its file did not change.
+ * While a level is played, the next one can be prefetched; at most one prefetched level is held at a time.
+ * Levels are requested and picked up on the render thread.
+ */
+public class LevelLoader {
+    public static final int CACHE_CAPACITY = 3; // Levels can be large, so only a few are kept
+
+    private final ExecutorService worker;
+    private final LinkedHashMap<String, LevelData> cache;
+    private final LevelCache levelCache; // Precompiled levels on disk, shared with later runs of the game
+    private Task prefetched; // The level loaded ahead of time, until it is played or replaced
+
+
+    private long hits;
+    private long misses;
+    private long prefetchHits;
+
+    /**
+     * A level being loaded. Poll {@link #isDone()} each frame and take the level once it is done.
+     */
+    public class Task implements LoadProgress {
+        private final String key;
+        private Future<LevelData> future;
+        private LevelData level;
+        private volatile float progress;
+
+        private Task(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void setProgress(float done) {
+            progress = done;
+        }
+
+        public float getProgress() {
+            return progress;
+        }
+
+        public boolean isDone() {
+            return future == null || future.isDone();
+        }
+
+        /**
+         * Gets the loaded level and remembers it in the cache.
+         *
+         * @return The level, or null if loading failed, was cancelled or is not done yet.
+         */
+        public LevelData getLevel() {
+            if (level == null && future != null && future.isDone() && !future.isCancelled()) {
+                try {
+                    level = future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Gdx.app.error("LevelLoader", "Loading the level failed", e.getCause());
+                } catch (CancellationException e) {
+                    return null;
+                }
+                if (level != null) {
+                    cache.put(key, level);
+                }
+            }
+            return level;
+        }
+
+        /**
+         * Stops loading the level. The background thread drops the partly loaded level.
+         */
+        public void cancel() {
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    public LevelLoader() {
+        this(new LevelCache(LevelCache.getDefaultDirectory()));
+    }
+
+    /**
+     * Creates a loader that keeps precompiled levels in the given cache.
+     *
+     * @param levelCache The on-disk level cache, or null to always load levels from their files.
+     */
+    public LevelLoader(LevelCache levelCache) {
+        this.levelCache = levelCache;
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "level-loader");
+            thread.setDaemon(true); // Never keeps the game from exiting
+            thread.setPriority(Thread.NORM_PRIORITY - 1); // Prefetching must not slow down the level being played
+            return thread;
+        });
+        // Access order turns the map into an LRU list
+        this.cache = new LinkedHashMap<>(CACHE_CAPACITY * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LevelData> eldest) {
+                return size() > CACHE_CAPACITY;
+            }
+        };
+    }
+
+    /**
+     * Starts loading a level, or returns a finished task if the unchanged file is in the cache.
+     *
+     * @param file The level file.
+     * @return The task to poll.
+     */
+    public Task load(FileHandle file) {
+        String key = file.path();
+        if (prefetched != null) {
+            Task task = takePrefetched(key);
+            if (task != null) {
+                prefetchHits++;
+                return task;
+            }
+        }
+        Task task = new Task(key);
+        LevelData cached = cache.get(key);
+        if (cached != null && cached.isCurrent()) {
+            hits++;
+            task.level = cached;
+            task.progress = 1;
+            return task;
+        }
+        misses++;
+        cache.remove(key);
+        task.future = worker.submit(() -> LevelData.load(file, levelCache, task));
+        return task;
+    }
+
+    /**
+     * Starts loading a level that is likely to be played next, replacing the previously prefetched level.
+     * Does nothing if the level is cached or already being prefetched.
+     *
+     * @param file The level file.
+     */
+    public void prefetch(FileHandle file) {
+        String key = file.path();
+        if (prefetched != null) {
+            if (prefetched.key.equals(key)) {
+                return;
+            }
+            prefetched.cancel();
+            prefetched = null;
+        }
+        LevelData cached = cache.get(key);
+        if (cached != null && cached.isCurrent()) {
+            return;
+        }
+        Task task = new Task(key);
+        task.future = worker.submit(() -> LevelData.load(file, levelCache, task));
+        prefetched = task;
+    }
+
+    /**
+     * Hands out the prefetched level if it is the requested one and still matches its file.
+     * Otherwise the prefetched level is dropped, so the requested level does not wait behind it.
+     *
+     * @return The prefetched task, or null if it cannot be used.
+     */
+    private Task takePrefetched(String key) {
+        Task task = prefetched;
+        prefetched = null;
+        if (task.key.equals(key)) {
+            if (!task.isDone()) {
+                return task; // The loading screen shows the rest of the progress
+            }
+            LevelData level = task.getLevel();
+            if (level != null && level.isCurrent()) {
+                return task;
+            }
+        }
+        task.cancel();
+        return null;
+    }
+
+    /**
+     * Stops the background thread. A level still loading is abandoned.
+     */
+    public void dispose() {
+        worker.shutdownNow();
+        cache.clear();
+        prefetched = null;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of loads that were served by the prefetched level.
+     *
+     * @return The number of prefetch hits.
+     */
+    public long getPrefetchHits() {
+        return prefetchHits;
+    }
+}
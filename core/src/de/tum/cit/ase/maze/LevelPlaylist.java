@@ -0,0 +1,111 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The levels played one after the other: every level file in the directory of the chosen level, in natural order,
+ * so level-2 comes before level-10. Only files in the format of the chosen level are listed, so a level converted
+ * to the binary format is not played twice.
+ */
+public class LevelPlaylist {
+    private final List<FileHandle> levels;
+    private final int current;
+
+    private LevelPlaylist(List<FileHandle> levels, int current) {
+        this.levels = levels;
+        this.current = current;
+    }
+
+    /**
+     * Creates the playlist of the directory a level file is in, positioned at that level.
+     *
+     * @param file The level being played.
+     * @return The playlist.
+     */
+    public static LevelPlaylist around(FileHandle file) {
+        List<FileHandle> levels = new ArrayList<>();
+        FileHandle directory = file.parent();
+        if (directory != null && directory.isDirectory()) {
+            for (FileHandle sibling : directory.list()) {
+                if (!sibling.isDirectory() && sibling.extension().equals(file.extension())) {
+                    levels.add(sibling);
+                }
+            }
+        }
+        levels.sort((a, b) -> compareNames(a.name(), b.name()));
+        int current = -1;
+        for (int i = 0; i < levels.size(); i++) {
+            if (levels.get(i).name().equals(file.name())) {
+                current = i;
+            }
+        }
+        if (current < 0) {
+            // The file is not listed, for example because it is inside a jar; it is a playlist of its own
+            levels.clear();
+            levels.add(file);
+            current = 0;
+        }
+        return new LevelPlaylist(levels, current);
+    }
+
+    /**
+     * Compares file names so that runs of digits are ordered by their value.
+     */
+    static int compareNames(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(j);
+            if (isDigit(ca) && isDigit(cb)) {
+                int endA = i;
+                while (endA < a.length() && isDigit(a.charAt(endA))) endA++;
+                int endB = j;
+                while (endB < b.length() && isDigit(b.charAt(endB))) endB++;
+                // Skip leading zeros, then the longer number is larger
+                while (i < endA - 1 && a.charAt(i) == '0') i++;
+                while (j < endB - 1 && b.charAt(j) == '0') j++;
+                if (endA - i != endB - j) {
+                    return (endA - i) - (endB - j);
+                }
+                int digits = a.substring(i, endA).compareTo(b.substring(j, endB));
+                if (digits != 0) {
+                    return digits;
+                }
+                i = endA;
+                j = endB;
+            } else {
+                if (ca != cb) {
+                    return ca - cb;
+                }
+                i++;
+                j++;
+            }
+        }
+        return (a.length() - i) - (b.length() - j);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9'; // The player class shadows java.lang.Character in this package
+    }
+
+    /**
+     * Gets the level after the current one.
+     *
+     * @return The next level file, or null if the current level is the last one.
+     */
+    public FileHandle getNext() {
+        return current + 1 < levels.size() ? levels.get(current + 1) : null;
+    }
+
+    public FileHandle getCurrent() {
+        return levels.get(current);
+    }
+
+    public int size() {
+        return levels.size();
+    }
+}
@@ -0,0 +1,13 @@
+package de.tum.cit.ase.maze;
+
+/**
+ * Receives the progress of a level that is loading on a background thread.
+ */
+public interface LoadProgress {
+    /**
+     * Called from the loading thread as the work advances.
+     *
+     * @param done The share of the work done, from 0 to 1.
+     */
+    void setProgress(float done);
+}
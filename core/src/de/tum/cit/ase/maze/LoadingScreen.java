@@ -0,0 +1,124 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.scenes.scene2d.ui.ProgressBar;
+import com.badlogic.gdx.scenes.scene2d.ui.Table;
+import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
+import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
+import com.badlogic.gdx.utils.viewport.ScreenViewport;
+
+/**
+ * Shows the progress of a level loading in the background and starts the level once it is ready.
+ * The player can cancel loading and return to the menu.
+ */
+public class LoadingScreen implements Screen {
+
+    private final MazeRunnerGame game;
+    private final LevelLoader.Task task;
+    private final Stage stage;
+    private final ProgressBar progressBar;
+    private boolean cancelled; // Set by the cancel button, handled after the stage is drawn
+
+    /**
+     * Constructs a LoadingScreen for a level that is being loaded.
+     *
+     * @param game The instance of the MazeRunnerGame to which this screen belongs.
+     * @param task The loading level.
+     * @param name The name of the level shown while loading.
+     */
+    public LoadingScreen(MazeRunnerGame game, LevelLoader.Task task, String name) {
+        this.game = game;
+        this.task = task;
+        OrthographicCamera camera = new OrthographicCamera();
+        camera.zoom = 1.5f;
+        stage = new Stage(new ScreenViewport(camera), game.getSpriteBatch());
+
+        Table table = new Table();
+        table.setFillParent(true);
+        stage.addActor(table);
+
+        Label loadingLabel = new Label("Loading " + name, game.getSkin(), "title");
+        table.add(loadingLabel).padBottom(80).row();
+
+        progressBar = new ProgressBar(0, 1, 0.01f, false, game.getSkin());
+        table.add(progressBar).width(300).padBottom(40).row();
+
+        // Cancel button
+        TextButton cancelButton = new TextButton("Cancel", game.getSkin());
+        table.add(cancelButton).width(300).row();
+        cancelButton.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeEvent event, Actor actor) {
+                task.cancel();
+                cancelled = true;
+            }
+        });
+    }
+
+    /**
+     * Renders the progress and switches to the game screen once the level is loaded.
+     *
+     * @param delta The time in seconds since the last render call.
+     */
+    @Override
+    public void render(float delta) {
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT); // Clear the screen
+        progressBar.setValue(task.getProgress());
+        stage.act(Math.min(Gdx.graphics.getDeltaTime(), 1 / 30f));
+        stage.draw();
+
+        if (cancelled) {
+            game.goToMenu();
+            dispose(); // The stage is not disposed from its own listener while it still handles the event
+        } else if (task.isDone()) {
+            LevelData level = task.getLevel();
+            if (level != null) {
+                game.startLevel(level); // Disposes this screen
+            } else {
+                Gdx.app.error("LoadingScreen", "The level could not be loaded");
+                game.goToMenu();
+                dispose();
+            }
+        }
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        stage.getViewport().update(width, height, true);
+    }
+
+    @Override
+    public void pause() {
+
+    }
+
+    @Override
+    public void resume() {
+
+    }
+
+    @Override
+    public void hide() {
+
+    }
+
+    @Override
+    public void dispose() {
+        stage.dispose();
+    }
+
+    /**
+     * Called when the loading screen becomes the current screen for a game.
+     */
+    @Override
+    public void show() {
+        Gdx.input.setInputProcessor(stage);
+    }
+
+}
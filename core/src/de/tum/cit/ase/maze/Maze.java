@@ -3,18 +3,31 @@
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Properties;
+import java.io.InputStream;
+import java.util.function.Supplier;
 import com.badlogic.gdx.math.Rectangle;
 
 
 /**
  * The Maze class is responsible for loading, parsing, and storing the layout of the maze.
- * It reads a maze configuration from a .properties file and represents it as a 2D grid.
+ * It reads a maze configuration from a .properties file or a binary .maze file and stores it in a chunked
+ * {@link TileStore}, which loads the chunks of large binary levels as they are needed.
  */
 public class Maze {
     private static final float TILE_SIZE = 16;
-    private int[][] layout;
+    private static final String PATHFINDER_KEY = "pathfinder"; // Optional level setting, see PathfinderType
+    private TileStore tiles; // Tile types in chunks, loaded from binary level files as they are needed
+    private int width;
+    private int height;
+    private WalkabilityGrid walkabilityGrid; // Shared by all pathfinders of the level
+    private ClusterGraph clusterGraph; // Abstract graph for hierarchical pathfinding, created on first use
+    private CorridorGraph corridorGraph; // Junctions and corridors for corridor pathfinding, created on first use
+    private ConnectivityIndex connectivityIndex; // Connected regions of the walkability grid, kept up to date
+    private OccupancyGrid occupancyGrid; // Tiles enemies currently stand on, kept apart from the static tiles
+    private boolean solvable; // Whether the player can reach a key and an exit from the entry
+    private PathCache pathCache; // Paths shared by the A* and JPS pathfinders of the level, created on first use
+    private final ChangeJournal journal = new ChangeJournal(ChangeJournal.DEFAULT_CAPACITY); // Recent tile changes and the version
+    private PathfinderType pathfinderType = PathfinderType.FLOW_FIELD;
     private boolean isValidMaze = false;
     private Character character;
     private MazeRunnerGame game;
@@ -23,7 +36,7 @@ public class Maze {
      * Constructor for the Maze class.
      * Loads and parses the maze configuration from the given file.
      *
-     * @param fileHandle The handle to the .properties file containing the maze layout.
+     * @param fileHandle The handle to the .properties or .maze file containing the maze layout.
      */
     public Maze(FileHandle fileHandle) {
         if (fileHandle == null || !fileHandle.exists()) {
@@ -31,77 +44,379 @@ public Maze(FileHandle fileHandle) {
             return;
         }
 
-        Properties properties = new Properties();
+        if (BinaryMazeFile.isBinary(fileHandle)) {
+            loadBinary(fileHandle);
+        } else {
+            loadProperties(fileHandle);
+        }
+    }
+
+    /**
+     * Loads a level in the .properties format with the streaming {@link MazeParser}.
+     *
+     * @param fileHandle The handle to the .properties file.
+     */
+    private void loadProperties(FileHandle fileHandle) {
+        MazeParser parser = new MazeParser();
+        try (InputStream input = fileHandle.read()) {
+            parser.parse(input);
+        } catch (IOException e) {
+            System.err.println("Error reading maze file: " + e.getMessage());
+            return;
+        }
+        if (parser.getWidth() > 0 && parser.getHeight() > 0) {
+            width = parser.getWidth();
+            height = parser.getHeight();
+            tiles = TileStore.fromTiles(width, height, parser.createTiles());
+            pathfinderType = PathfinderType.fromKey(parser.getSetting(PATHFINDER_KEY));
+            buildIndexes();
+        } else {
+            System.err.println("Invalid maze size determined from the file.");
+        }
+    }
+
+    /**
+     * Loads a level in the binary format of {@link BinaryMazeFile}.
+     *
+     * @param fileHandle The handle to the binary file.
+     */
+    private void loadBinary(FileHandle fileHandle) {
         try {
-            properties.load(fileHandle.read());
-            int[] size = determineMazeSize(properties);
-            if (size[0] > 0 && size[1] > 0) {
-                layout = new int[size[0]][size[1]];
-                // Initialize the layout with floor value (-1)
-                for (int i = 0; i < layout.length; i++) {
-                    Arrays.fill(layout[i], -1); // Fill row with floor value
-                }
-                parseProperties(properties);
-                isValidMaze = true;
-            } else {
-                System.err.println("Invalid maze size determined from the file.");
-            }
+            BinaryMazeFile file = BinaryMazeFile.read(fileHandle);
+            width = file.getWidth();
+            height = file.getHeight();
+            tiles = TileStore.fromFile(file, TileStore.DEFAULT_MAX_LOADED_CHUNKS);
+            pathfinderType = PathfinderType.fromKey(file.getSetting(PATHFINDER_KEY));
+            buildIndexes();
         } catch (IOException e) {
             System.err.println("Error reading maze file: " + e.getMessage());
-        } catch (NumberFormatException e) {
-            System.err.println("Invalid number format in maze file: " + e.getMessage());
         }
     }
 
     /**
-     * Determines the size of the maze based on the properties file.
+     * Creates a maze from a layout built in code, for example a generated maze or a benchmark fixture.
      *
-     * @param properties The properties object containing the maze data.
-     * @return An array containing the width and height of the maze.
+     * @param layout The layout of the maze, indexed as layout[x][y]; it is copied.
+     * @param pathfinderType The pathfinding strategy for the enemies of the maze.
      */
-    private int[] determineMazeSize(Properties properties) {
-        int maxWidth = 0;
-        int maxHeight = 0;
-        for (String key : properties.stringPropertyNames()) {
-            try {
-                String[] coords = key.split(",");
-                int x = Integer.parseInt(coords[0]);
-                int y = Integer.parseInt(coords[1]);
-                if (x > maxWidth) maxWidth = x;
-                if (y > maxHeight) maxHeight = y;
-            } catch (NumberFormatException e) {
-                System.err.println("Invalid coordinate format: " + key);
+    public Maze(int[][] layout, PathfinderType pathfinderType) {
+        if (layout.length == 0 || layout[0].length == 0) {
+            System.err.println("Invalid maze size determined from the layout.");
+            return;
+        }
+        this.width = layout.length;
+        this.height = layout[0].length;
+        byte[] types = new byte[width * height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                types[y * width + x] = (byte) layout[x][y];
             }
         }
-        return new int[]{maxWidth + 1, maxHeight + 1};
+        this.tiles = TileStore.fromTiles(width, height, types);
+        this.pathfinderType = pathfinderType;
+        buildIndexes();
+    }
+
+    /**
+     * Creates a maze from indexes that were built before, as read from the {@link LevelCache}.
+     * Nothing is recomputed or validated again.
+     *
+     * @param tiles The tiles of the maze.
+     * @param pathfinderType The pathfinding strategy for the enemies of the maze.
+     * @param walkabilityGrid The walkability grid of the tiles.
+     * @param connectivityIndex The connectivity index of the walkability grid.
+     * @param corridorGraph The corridor graph of the walkability grid, or null to create it on first use.
+     * @param solvable Whether the player can reach a key and an exit from the entry.
+     */
+    Maze(TileStore tiles, PathfinderType pathfinderType, WalkabilityGrid walkabilityGrid,
+         ConnectivityIndex connectivityIndex, CorridorGraph corridorGraph, boolean solvable) {
+        this.tiles = tiles;
+        this.width = tiles.getWidth();
+        this.height = tiles.getHeight();
+        this.pathfinderType = pathfinderType;
+        this.walkabilityGrid = walkabilityGrid;
+        this.connectivityIndex = connectivityIndex;
+        this.corridorGraph = corridorGraph;
+        this.occupancyGrid = new OccupancyGrid(width, height);
+        this.solvable = solvable;
+        this.isValidMaze = true;
+    }
+
+    /**
+     * Builds the walkability grid and connectivity index of the loaded layout and validates the level.
+     */
+    private void buildIndexes() {
+        walkabilityGrid = WalkabilityGrid.fromTiles(tiles);
+        connectivityIndex = new ConnectivityIndex(walkabilityGrid);
+        occupancyGrid = new OccupancyGrid(width, height);
+        solvable = validateReachability();
+        isValidMaze = true;
     }
 
     /**
-     * Parses the properties file and fills the maze layout.
+     * Checks that the player can walk from the entry to a key and to an exit. Walls are the only tiles
+     * that block the player, so this uses its own connectivity index instead of the one of the enemies.
+     * Every problem found is reported on the error stream.
      *
-     * @param properties The properties object containing the maze data.
+     * @return true if a key and an exit can be reached from the entry, false otherwise.
      */
-    private void parseProperties(Properties properties) {
-        properties.forEach((key, value) -> {
-            try {
-                String[] coords = ((String) key).split(",");
-                int x = Integer.parseInt(coords[0]);
-                int y = Integer.parseInt(coords[1]);
-                int type = Integer.parseInt((String) value);
-                layout[x][y] = type;
-            } catch (NumberFormatException e) {
-                System.err.println("Invalid format in maze file for key: " + key);
+    private boolean validateReachability() {
+        WalkabilityGrid playerGrid = new WalkabilityGrid(width, height);
+        int entry = -1;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int type = tiles.get(x, y);
+                playerGrid.setWalkable(x, y, type != 0);
+                if (type == 1) {
+                    entry = y * width + x;
+                }
             }
-        });
+        }
+        if (entry < 0) {
+            System.err.println("Maze has no entry.");
+            return false;
+        }
+
+        ConnectivityIndex playerConnectivity = new ConnectivityIndex(playerGrid);
+        boolean keyReachable = false;
+        boolean exitReachable = false;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int type = tiles.get(x, y);
+                if (type != 2 && type != 5) {
+                    continue;
+                }
+                boolean reachable = playerConnectivity.isConnected(entry, y * width + x);
+                if (!reachable) {
+                    System.err.println((type == 5 ? "Key" : "Exit") + " at " + x + "," + y + " cannot be reached from the entry.");
+                } else if (type == 5) {
+                    keyReachable = true;
+                } else {
+                    exitReachable = true;
+                }
+            }
+        }
+        if (!keyReachable) {
+            System.err.println("Maze has no key that can be reached from the entry.");
+        }
+        if (!exitReachable) {
+            System.err.println("Maze has no exit that can be reached from the entry.");
+        }
+        return keyReachable && exitReachable;
+    }
+
+    /**
+     * Checks whether the maze was loaded successfully.
+     *
+     * @return true if the maze has tiles and its indexes are built, false otherwise.
+     */
+    public boolean isValid() {
+        return isValidMaze;
+    }
+
+    /**
+     * Gets the width of the maze in tiles.
+     *
+     * @return The width, or 0 if the maze could not be loaded.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the maze in tiles.
+     *
+     * @return The height, or 0 if the maze could not be loaded.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the tiles of the maze. Callers can prefetch the chunks around the camera from it.
+     *
+     * @return The tile store, or null if the maze could not be loaded.
+     */
+    public TileStore getTileStore() {
+        return tiles;
+    }
+
+    /**
+     * Gets the grid of tiles occupied by enemies. Enemies update it as they move instead of changing the tiles
+     * of the maze, so the walkability grid and the path cache stay valid while the level is played.
+     *
+     * @return The occupancy grid, or null if the maze could not be loaded.
+     */
+    public OccupancyGrid getOccupancyGrid() {
+        return occupancyGrid;
+    }
+
+    /**
+     * Gets the walkability grid of the maze. The grid is shared by all enemies and kept
+     * up to date by {@link #setElementAt(int, int, int)}.
+     *
+     * @return The walkability grid, or null if the maze could not be loaded.
+     */
+    public WalkabilityGrid getWalkabilityGrid() {
+        return walkabilityGrid;
+    }
+
+    /**
+     * Gets the pathfinding strategy the level chose for its enemies.
+     *
+     * @return The pathfinding strategy, FLOW_FIELD unless the maze file selects another one.
+     */
+    public PathfinderType getPathfinderType() {
+        return pathfinderType;
+    }
+
+    /**
+     * Gets the abstract graph used by hierarchical pathfinders, creating it on first use.
+     * The graph listens to the walkability grid and rebuilds only the clusters that changed.
+     *
+     * @return The cluster graph of the maze.
+     */
+    public ClusterGraph getClusterGraph() {
+        if (clusterGraph == null) {
+            clusterGraph = new ClusterGraph(walkabilityGrid);
+        }
+        return clusterGraph;
+    }
+
+    /**
+     * Gets the graph of junctions and corridors used by corridor pathfinders, creating it on first use.
+     * The graph listens to the walkability grid and only retraces the corridors around a changed tile.
+     *
+     * @return The corridor graph of the maze.
+     */
+    public CorridorGraph getCorridorGraph() {
+        if (corridorGraph == null) {
+            corridorGraph = new CorridorGraph(walkabilityGrid);
+        }
+        return corridorGraph;
     }
 
     /**
-     * Gets the maze layout as a 2D integer array.
+     * Gets the connected regions of the walkability grid, which answer whether an enemy can reach a tile at all.
      *
-     * @return The 2D array representing the maze.
+     * @return The connectivity index of the maze.
      */
-    public int[][] getLayout() {
-        return layout;
+    public ConnectivityIndex getConnectivityIndex() {
+        return connectivityIndex;
+    }
+
+    /**
+     * Checks whether the player can walk from the entry to a key and to an exit, as determined when the maze
+     * was loaded.
+     *
+     * @return true if the level can be won, false otherwise.
+     */
+    public boolean isSolvable() {
+        return solvable;
+    }
+
+    /**
+     * Gets the path cache shared by the A* and Jump Point Search pathfinders of the level, creating it on first use.
+     *
+     * @return The path cache of the maze.
+     */
+    public PathCache getPathCache() {
+        if (pathCache == null) {
+            pathCache = new PathCache(this, PathCache.DEFAULT_CAPACITY);
+        }
+        return pathCache;
+    }
+
+    /**
+     * Gets the version of the maze, which is incremented every time {@link #setElementAt(int, int, int)}
+     * changes a tile. Anything derived from the layout can compare versions to detect that it is stale.
+     *
+     * @return The current version of the maze.
+     */
+    public long getVersion() {
+        return journal.getVersion();
+    }
+
+    /**
+     * Gets the journal of recent tile changes. Consumers remember the version they are up to date with and
+     * ask the journal for the tiles changed since, falling back to a full rebuild if it no longer covers it.
+     *
+     * @return The change journal of the maze.
+     */
+    public ChangeJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Creates a pathfinder of the type the level chose, searching the shared walkability grid.
+     * Levels that use the flow field get an A* pathfinder for enemies that have no flow field.
+     * Complete paths found by A* and Jump Point Search are shared between enemies through the path cache,
+     * and queries for tiles in another region of the maze are answered without searching.
+     *
+     * @return A new pathfinder with its own search state.
+     */
+    public Pathfinder createPathfinder() {
+        switch (pathfinderType) {
+            case JUMP_POINT:
+                return new ReachabilityFilter(
+                        new CachingPathfinder(new JumpPointSearch(walkabilityGrid), getPathCache()), connectivityIndex);
+            case HIERARCHICAL:
+                return new ReachabilityFilter(new HierarchicalPathfinder(getClusterGraph()), connectivityIndex);
+            case CORRIDOR:
+                return new ReachabilityFilter(new CorridorPathfinder(getCorridorGraph()), connectivityIndex);
+            case ASTAR:
+            case FLOW_FIELD:
+            default:
+                return new ReachabilityFilter(
+                        new CachingPathfinder(new AStar(walkabilityGrid), getPathCache()), connectivityIndex);
+        }
+    }
+
+    /**
+     * Creates an uncached pathfinder of the type the level chose over another grid.
+     * Hierarchical and corridor pathfinders get their own graph of that grid, which listens to its changes.
+     *
+     * @param grid The grid to search; it must have the size of the maze.
+     * @return A new pathfinder with its own search state.
+     */
+    public Pathfinder createPathfinder(WalkabilityGrid grid) {
+        switch (pathfinderType) {
+            case JUMP_POINT:
+                return new JumpPointSearch(grid);
+            case HIERARCHICAL:
+                return new HierarchicalPathfinder(new ClusterGraph(grid));
+            case CORRIDOR:
+                return new CorridorPathfinder(new CorridorGraph(grid));
+            case ASTAR:
+            case FLOW_FIELD:
+            default:
+                return new AStar(grid);
+        }
+    }
+
+    /**
+     * Prepares uncached searches of the type the level chose over a snapshot of the walkability grid, which
+     * background threads search. A hierarchical or corridor graph is built once here, on the calling thread,
+     * and shared read-only by every pathfinder the returned factory creates; each of them has its own search state.
+     *
+     * @param snapshot The snapshot to search, see {@link WalkabilityGrid#snapshot()}.
+     * @return The factory creating a pathfinder for each thread.
+     */
+    public Supplier<Pathfinder> createSnapshotPathfinders(WalkabilityGrid snapshot) {
+        switch (pathfinderType) {
+            case JUMP_POINT:
+                return () -> new JumpPointSearch(snapshot);
+            case HIERARCHICAL:
+                ClusterGraph clusterGraph = ClusterGraph.ofSnapshot(snapshot);
+                return () -> new HierarchicalPathfinder(clusterGraph);
+            case CORRIDOR:
+                CorridorGraph corridorGraph = CorridorGraph.ofSnapshot(snapshot);
+                return () -> new CorridorPathfinder(corridorGraph);
+            case ASTAR:
+            case FLOW_FIELD:
+            default:
+                return () -> new AStar(snapshot);
+        }
     }
 
 
@@ -120,11 +435,11 @@ public int checkCollision(Rectangle characterBounds, boolean hasKey) {
                 int gridX = (int) (checkX / TILE_SIZE);
                 int gridY = (int) (checkY / TILE_SIZE);
 
-                if (gridX < 0 || gridY < 0 || gridX >= layout.length || gridY >= layout[0].length) {
+                if (gridX < 0 || gridY < 0 || gridX >= width || gridY >= height) {
                     return 0;
                 }
 
-                int tileType = layout[gridX][gridY];
+                int tileType = tiles.get(gridX, gridY);
                 switch (tileType) {
                     case 0: // Wall
                         return 0;
@@ -135,12 +450,13 @@ public int checkCollision(Rectangle characterBounds, boolean hasKey) {
                         // Collision with locked door if no key
                     case 3: // Trap
                         return 3;
-                    case 4: // Enemy
-                        return 4;
                     case 5: // Key
                         return 5;
                     // Add additional cases as needed
                 }
+                if (occupancyGrid.isOccupied(gridX, gridY)) {
+                    return 4; // Enemy
+                }
             }
         }
 
@@ -157,13 +473,14 @@ public int checkCollision(Rectangle characterBounds, boolean hasKey) {
      */
     public int getElementAt(int x, int y) {
         // Check bounds
-        if (x < 0 || y < 0 || x >= layout.length || y >= layout[0].length) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
             return -1; // Indicating out of bounds or no element
         }
-        return layout[x][y];
+        return tiles.get(x, y);
     }
     /**
      * Sets the type of element at the specified coordinates.
+     * The tiles are static while a level is played; moving entities use the {@link OccupancyGrid} instead.
      *
      * @param x The x-coordinate.
      * @param y The y-coordinate.
@@ -171,8 +488,10 @@ public int getElementAt(int x, int y) {
      */
     public void setElementAt(int x, int y, int elementType) {
         // Check bounds to avoid ArrayIndexOutOfBoundsException
-        if (x >= 0 && y >= 0 && x < layout.length && y < layout[0].length) {
-            layout[x][y] = elementType;
+        if (x >= 0 && y >= 0 && x < width && y < height && tiles.get(x, y) != elementType) {
+            journal.record(y * width + x, tiles.get(x, y), elementType);
+            tiles.set(x, y, elementType);
+            walkabilityGrid.setWalkable(x, y, WalkabilityGrid.isWalkableType(elementType));
         }
     }
 
@@ -0,0 +1,63 @@
+package de.tum.cit.ase.maze;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Converts levels from the .properties format to the binary format of {@link BinaryMazeFile}.
+ * Run it with the level files to convert; each is written next to its source with the extension .maze.
+ */
+public class MazeConverter {
+    private MazeConverter() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: MazeConverter <level.properties>...");
+            System.exit(1);
+        }
+        boolean failed = false;
+        for (String path : args) {
+            File source = new File(path);
+            String name = source.getName();
+            int extension = name.lastIndexOf('.');
+            File target = new File(source.getParentFile(),
+                    (extension > 0 ? name.substring(0, extension) : name) + "." + BinaryMazeFile.EXTENSION);
+            try {
+                convert(source, target);
+                System.out.println("Converted " + source + " to " + target);
+            } catch (IOException e) {
+                System.err.println("Error converting " + source + ": " + e.getMessage());
+                failed = true;
+            }
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Converts one level file.
+     *
+     * @param source The .properties file to read.
+     * @param target The binary file to write.
+     * @throws IOException If the source cannot be read or holds no tiles, or the target cannot be written.
+     */
+    public static void convert(File source, File target) throws IOException {
+        MazeParser parser = new MazeParser();
+        try (InputStream input = new FileInputStream(source)) {
+            parser.parse(input);
+        }
+        if (parser.getWidth() == 0 || parser.getHeight() == 0) {
+            throw new IOException("The level holds no tiles.");
+        }
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(target))) {
+            BinaryMazeFile.write(parser.getWidth(), parser.getHeight(), parser.createTiles(), parser.getSettings(), output);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package de.tum.cit.ase.maze;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads maze files in the .properties format in a single streaming pass.
+ * Every "x,y=type" line is tokenized straight from a reused byte buffer into a growable array of primitive
+ * (x, y, type) triples, so reading a tile allocates nothing and the size of the maze is known at the end
+ * without a second pass. Lines whose key is a name rather than coordinates are kept as level settings; a name
+ * starts with a letter followed by letters, digits, '_', '.' or '-'.
+ * Blank lines and comments starting with '#' or '!' are skipped, and malformed lines are reported with
+ * their line number and skipped as well. Later lines overwrite earlier lines for the same tile.
+ * A tile that would make the maze larger than {@link #MAX_TILES} is reported, and the level is rejected.
+ */
+public class MazeParser {
+    public static final int MAX_TILES = 1 << 26; // 8192 x 8192 tiles, 64 MB of tile types
+    private static final int MAX_REPORTED_ERRORS = 20; // Further errors are only counted
+
+    private final byte[] readBuffer = new byte[1 << 16];
+    private int readPosition;
+    private int readLimit;
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private int numberEnd; // Position after the digits read by the last parseNumber call
+
+    private int[] tiles = new int[3 * 1024]; // (x, y, type) triples in file order
+    private int tileCount;
+    private int width;
+    private int height;
+    private final Map<String, String> settings = new HashMap<>();
+    private int errorCount;
+    private boolean tooLarge; // A tile lay outside the largest allowed maze
+
+    /**
+     * Reads a maze file. The stream is read to its end but not closed.
+     *
+     * @param input The contents of the maze file.
+     * @throws IOException If the stream cannot be read or the maze is larger than {@link #MAX_TILES}.
+     */
+    public void parse(InputStream input) throws IOException {
+        int lineNumber = 0;
+        int length;
+        while ((length = readLine(input)) >= 0) {
+            lineNumber++;
+            parseLine(length, lineNumber);
+        }
+        if (errorCount > MAX_REPORTED_ERRORS) {
+            System.err.println((errorCount - MAX_REPORTED_ERRORS) + " more malformed lines in maze file.");
+        }
+        if (tooLarge) {
+            throw new IOException("The maze is larger than " + MAX_TILES + " tiles.");
+        }
+    }
+
+    /**
+     * Copies the next line into the line buffer, without its line break.
+     *
+     * @return The length of the line, or -1 at the end of the stream.
+     */
+    private int readLine(InputStream input) throws IOException {
+        int length = 0;
+        while (true) {
+            if (readPosition == readLimit) {
+                readLimit = input.read(readBuffer, 0, readBuffer.length);
+                readPosition = 0;
+                if (readLimit <= 0) {
+                    readLimit = 0;
+                    return length > 0 ? length : -1;
+                }
+            }
+            byte next = readBuffer[readPosition++];
+            if (next == '\n') {
+                return length;
+            }
+            if (next == '\r') {
+                continue;
+            }
+            if (length == line.length) {
+                line = Arrays.copyOf(line, length * 2);
+            }
+            line[length++] = next;
+        }
+    }
+
+    private void parseLine(int length, int lineNumber) {
+        lineLength = length;
+        int position = skipWhitespace(0, length);
+        if (position == length || line[position] == '#' || line[position] == '!') {
+            return;
+        }
+        if (isLetter(line[position])) {
+            parseSetting(position, length, lineNumber);
+            return;
+        }
+        if (!isDigit(line[position])) {
+            error(lineNumber, "expected coordinates or a setting name followed by '='");
+            return;
+        }
+
+        // x,y=type, with optional whitespace between the tokens
+        long x = parseNumber(position, length);
+        position = skipWhitespace(numberEnd, length);
+        if (x < 0 || position == length || line[position] != ',') {
+            error(lineNumber, "expected x-coordinate followed by ','");
+            return;
+        }
+        position = skipWhitespace(position + 1, length);
+        long y = parseNumber(position, length);
+        position = skipWhitespace(numberEnd, length);
+        if (y < 0 || position == length || (line[position] != '=' && line[position] != ':')) {
+            error(lineNumber, "expected y-coordinate followed by '='");
+            return;
+        }
+        position = skipWhitespace(position + 1, length);
+        boolean negative = position < length && line[position] == '-';
+        long type = parseNumber(negative ? position + 1 : position, length);
+        position = skipWhitespace(numberEnd, length);
+        if (type < 0 || position != length) {
+            error(lineNumber, "expected a number as tile type");
+            return;
+        }
+        if (type > (negative ? -Byte.MIN_VALUE : Byte.MAX_VALUE)) {
+            error(lineNumber, "tile type out of range");
+            return;
+        }
+        if ((long) Math.max(width, x + 1) * Math.max(height, y + 1) > MAX_TILES) {
+            tooLarge = true;
+            error(lineNumber, "the maze would be larger than " + MAX_TILES + " tiles");
+            return;
+        }
+        addTile((int) x, (int) y, (int) (negative ? -type : type));
+    }
+
+    /**
+     * Reads an unsigned decimal number from the line buffer.
+     *
+     * @return The number, or -1 if there are no digits or the number is too large for a coordinate.
+     */
+    private long parseNumber(int position, int length) {
+        long value = 0;
+        int start = position;
+        while (position < length && isDigit(line[position])) {
+            value = value * 10 + (line[position] - '0');
+            if (value > Integer.MAX_VALUE) {
+                numberEnd = position;
+                return -1;
+            }
+            position++;
+        }
+        numberEnd = position;
+        return position == start ? -1 : value;
+    }
+
+    private void parseSetting(int position, int length, int lineNumber) {
+        int keyEnd = position;
+        // A setting name starts with a letter, followed by letters, digits, '_', '.' or '-'
+        while (keyEnd < length && (isLetter(line[keyEnd]) || isDigit(line[keyEnd])
+                || line[keyEnd] == '_' || line[keyEnd] == '.' || line[keyEnd] == '-')) {
+            keyEnd++;
+        }
+        int separator = skipWhitespace(keyEnd, length);
+        if (separator == length || (line[separator] != '=' && line[separator] != ':')) {
+            error(lineNumber, "expected coordinates or a setting name followed by '='");
+            return;
+        }
+        int valueStart = skipWhitespace(separator + 1, length);
+        int valueEnd = length;
+        while (valueEnd > valueStart && isWhitespace(line[valueEnd - 1])) {
+            valueEnd--;
+        }
+        settings.put(ascii(position, keyEnd), ascii(valueStart, valueEnd));
+    }
+
+    private String ascii(int start, int end) {
+        return new String(line, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    private void addTile(int x, int y, int type) {
+        if (tileCount * 3 == tiles.length) {
+            tiles = Arrays.copyOf(tiles, tiles.length * 2);
+        }
+        tiles[tileCount * 3] = x;
+        tiles[tileCount * 3 + 1] = y;
+        tiles[tileCount * 3 + 2] = type;
+        tileCount++;
+        if (x >= width) width = x + 1;
+        if (y >= height) height = y + 1;
+    }
+
+    private void error(int lineNumber, String message) {
+        errorCount++;
+        if (errorCount <= MAX_REPORTED_ERRORS) {
+            System.err.println("Malformed line " + lineNumber + " in maze file, " + message + ": "
+                    + ascii(0, Math.min(lineLength, 80)));
+        }
+    }
+
+    private int skipWhitespace(int position, int length) {
+        while (position < length && isWhitespace(line[position])) {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean isDigit(byte value) {
+        return value >= '0' && value <= '9';
+    }
+
+    private static boolean isLetter(byte value) {
+        return (value >= 'a' && value <= 'z') || (value >= 'A' && value <= 'Z');
+    }
+
+    private static boolean isWhitespace(byte value) {
+        return value == ' ' || value == '\t' || value == '\f';
+    }
+
+    /**
+     * Creates the tiles of the parsed maze. Tiles that the file does not mention are floor (-1).
+     *
+     * @return The tile types at y * width + x.
+     */
+    public byte[] createTiles() {
+        byte[] layout = new byte[width * height];
+        Arrays.fill(layout, (byte) -1);
+        for (int i = 0; i < tileCount * 3; i += 3) {
+            layout[tiles[i + 1] * width + tiles[i]] = (byte) tiles[i + 2];
+        }
+        return layout;
+    }
+
+    /**
+     * Gets the value of a level setting, such as the pathfinder.
+     *
+     * @param key The name of the setting.
+     * @return The value, or null if the file does not contain the setting.
+     */
+    public String getSetting(String key) {
+        return settings.get(key);
+    }
+
+    /**
+     * Gets all level settings of the parsed file.
+     *
+     * @return The settings by name.
+     */
+    public Map<String, String> getSettings() {
+        return settings;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getTileCount() {
+        return tileCount;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+}
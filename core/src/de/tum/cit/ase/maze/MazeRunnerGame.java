@@ -2,9 +2,9 @@
 
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
@@ -38,13 +38,19 @@ public class MazeRunnerGame extends Game {
     private static TextureRegion floorTextureRegion;
 
 
-    // The texture containing all the elements
-    private Texture mazeElementsTexture;
-    private Texture obstaclesTexture;
-    private Texture mobsTexture;
+    // Textures and animations shared by all elements
+    private AssetRegistry assets;
+
+    // The sprite sheets containing all the elements, regions of the packed atlas
+    private TextureRegion mazeElementsTexture;
+    private TextureRegion obstaclesTexture;
+    private TextureRegion mobsTexture;
 
     //Maze
     private Maze maze;
+    private LevelData level; // The level being played, restarted by goToGame
+    private LevelLoader levelLoader; // Loads levels in the background and caches them
+    private LevelPlaylist playlist; // The levels next to the one being played
 
     private static TextureRegion fullHeartTexture;
     private static TextureRegion emptyHeartTexture;
@@ -63,8 +69,8 @@ public class MazeRunnerGame extends Game {
     private static TextureRegion shieldTextureRegion;
     private static TextureRegion closedChestTextureRegion;
     private static TextureRegion openChestTextureRegion;
-    private Texture chestTexture;
-    private Texture collectiblesTexture;
+    private TextureRegion chestTexture;
+    private TextureRegion collectiblesTexture;
     protected boolean isPaused = false;
 
 
@@ -96,6 +102,9 @@ public class MazeRunnerGame extends Game {
     // Enemy animation right
     private Animation<TextureRegion> enemyRightAnimation;
 
+    // Enemy animations in the order of Direction, shared by all enemies
+    private Animation<TextureRegion>[] enemyAnimations;
+
     // Enemy death animation
     private Animation<TextureRegion> enemyDeathAnimation;
 
@@ -124,6 +133,8 @@ public MazeRunnerGame(NativeFileChooser fileChooser) {
     @Override
     public void create() {
         spriteBatch = new SpriteBatch(); // Create SpriteBatch
+        levelLoader = new LevelLoader();
+        assets = new AssetRegistry(); // Loads every texture once
         skin = new Skin(Gdx.files.internal("craft/craftacular-ui.json")); // Load UI skin
         this.loadCharacterAnimations(); // Load character animations
         this.loadCharacterArmedAnimations(); // load armed character animations
@@ -131,11 +142,11 @@ public void create() {
 
 
         // Load the sprite sheet
-        mazeElementsTexture = new Texture(Gdx.files.internal("basictiles-shee.salomet.png"));
-        obstaclesTexture = new Texture(Gdx.files.internal("objects.OwOt.png"));
-        mobsTexture = new Texture(Gdx.files.internal("mobs-sheet.salome.png"));//Enemy design by Salome Tsitskishvili
-        chestTexture = new Texture(Gdx.files.internal("things.png"));
-        collectiblesTexture = new Texture(Gdx.files.internal("objects.OwOt.png"));
+        mazeElementsTexture = assets.getSheet("basictiles-shee.salomet.png");
+        obstaclesTexture = assets.getSheet("objects.OwOt.png");
+        mobsTexture = assets.getSheet("mobs-sheet.salome.png");//Enemy design by Salome Tsitskishvili
+        chestTexture = assets.getSheet("things.png");
+        collectiblesTexture = assets.getSheet("objects.OwOt.png");
 
 
         // Initialize TextureRegions for each element
@@ -230,13 +241,15 @@ public void goToGame() {
         }
         gameMusic.play();
         gameMusic.setLooping(true);
+        if (gameScreen != null) {
+            gameScreen.dispose(); // Stops the pathfinding workers of the previous level
+        }
         gameScreen = new GameScreen(this);
         this.setScreen(gameScreen); // Set the current screen to GameScreen
         Gdx.app.log("Debug", "gameScreen instantiated");
-        Gdx.app.log("Debug", menuScreen.toString());
         if (menuScreen != null) {
             menuScreen.dispose(); // Dispose the menu screen if it exists
-
+            menuScreen = null;
         }
     }
     /**
@@ -262,17 +275,41 @@ public void resumeGame() {
 
     /**
      * Loads a maze configuration from a given file and initiates the transition to the game screen.
-     * This method creates a new Maze instance based on the file content, sets the current game state
-     * to reflect the newly loaded maze, and navigates to the game screen where the maze will be displayed.
-     * Logging is used to confirm the successful transition and the existence of the game screen.
+     * The file is parsed on a background thread while a loading screen shows the progress;
+     * once it is ready, {@link #startLevel(LevelData)} switches to the game screen.
+     * A file that was loaded recently or prefetched and did not change since starts right away.
      *
      * @param fileHandle The file handle representing the source file for the maze configuration.
      *                   This file should contain the maze layout and possibly other settings
      *                   related to the maze that will be interpreted by the Maze class.
      */
     public void loadMaze(FileHandle fileHandle) {
-        this.maze = new Maze(fileHandle);
+        LevelLoader.Task task = levelLoader.load(fileHandle);
+        LevelData loaded = task.getLevel();
+        if (loaded != null) {
+            startLevel(loaded);
+        } else {
+            this.setScreen(new LoadingScreen(this, task, fileHandle.nameWithoutExtension()));
+        }
+    }
+
+    /**
+     * Starts playing a loaded level and prefetches the level after it in the playlist.
+     *
+     * @param level The level, prepared by the level loader.
+     */
+    public void startLevel(LevelData level) {
+        Screen loadingScreen = getScreen() instanceof LoadingScreen ? getScreen() : null;
+        this.level = level;
+        this.maze = level.getMaze();
         goToGame(); // Go to the game screen after loading the maze
+        if (loadingScreen != null) {
+            loadingScreen.dispose();
+        }
+        playlist = LevelPlaylist.around(level.getFile());
+        if (playlist.getNext() != null) {
+            levelLoader.prefetch(playlist.getNext()); // Parsed while this level is played
+        }
         if(this.gameScreen == null) {
             Gdx.app.log("loadMaze", "game.gameScreen is null");
         } else {
@@ -281,6 +318,24 @@ public void loadMaze(FileHandle fileHandle) {
     }
 
 
+    /**
+     * Checks whether the playlist has a level after the one being played.
+     *
+     * @return true if there is a next level.
+     */
+    public boolean hasNextLevel() {
+        return playlist != null && playlist.getNext() != null;
+    }
+
+    /**
+     * Loads the level after the one being played, which is usually prefetched by now.
+     */
+    public void loadNextLevel() {
+        if (hasNextLevel()) {
+            loadMaze(playlist.getNext());
+        }
+    }
+
     // Method to set the GameScreen
     public void setGameScreen(GameScreen gameScreen) {
         this.gameScreen = gameScreen;
@@ -303,7 +358,7 @@ public Animation<TextureRegion> getCharacterRightAnimation() {
      * Loads the character animations from the character.png file.
      */
     private void loadCharacterAnimations() {
-        Texture walkSheet = new Texture(Gdx.files.internal("character.salome-sheet.png"));
+        TextureRegion walkSheet = assets.getSheet("character.salome-sheet.png");
 
         int frameWidth = 16;
         int frameHeight = 32;
@@ -319,9 +374,7 @@ private void loadCharacterAnimations() {
      * Loads the armed character animations from the character.png file.
      */
     private void loadCharacterArmedAnimations() {
-        Texture walkSheet = new Texture(Gdx.files.internal("characters.salome-sheet.png"));
-        TextureRegion armedRegion = new TextureRegion(walkSheet,0,4,84,84);
-
+        TextureRegion walkSheet = assets.getSheet("characters.salome-sheet.png");
 
         int frameWidth = 16;
         int frameHeight = 32;
@@ -337,8 +390,9 @@ private void loadCharacterArmedAnimations() {
     /**
      * Loads the enemy animations from the mobs.png file.
      */
+    @SuppressWarnings("unchecked")
     private void loadEnemyAnimations() {
-        Texture walkSheet = new Texture(Gdx.files.internal("mobs-sheet.salome.png"));//Enemy design by Salome Tsitskishvili
+        TextureRegion walkSheet = assets.getSheet("mobs-sheet.salome.png");//Enemy design by Salome Tsitskishvili
 
         int frameWidth = 16;
         int frameHeight = 16;
@@ -349,15 +403,14 @@ private void loadEnemyAnimations() {
         enemyLeftAnimation = createAnimation(walkSheet, 1, frameWidth, frameHeight, animationFrames);
         enemyRightAnimation = createAnimation(walkSheet, 2, frameWidth, frameHeight, animationFrames);
         enemyUpAnimation = createAnimation(walkSheet, 3, frameWidth, frameHeight, animationFrames);
+        // Shared by all enemies, in the order of Direction
+        enemyAnimations = new Animation[] {enemyDownAnimation, enemyLeftAnimation, enemyRightAnimation, enemyUpAnimation};
     }
     /**
      * Loads and initializes textures for various game elements. This includes setting up texture regions for hearts and loading other sprites from asset files.
      */
     private void loadTextures() {
-        spriteBatch = new SpriteBatch(); // Create SpriteBatch
-        Texture spriteSheet = new Texture(Gdx.files.internal("objects.png")); // Adjust path and coordinates
-        Texture noKeytexture = new Texture(Gdx.files.internal("objects.png"));
-        Texture keytexture = new Texture(Gdx.files.internal("objects.png"));
+        TextureRegion spriteSheet = assets.getSheet("objects.png");
         fullHeartTexture = new TextureRegion(spriteSheet, 64, 0, 16, 16);
         emptyHeartTexture = new TextureRegion(spriteSheet, 128, 0, 16, 16);
 
@@ -366,14 +419,14 @@ private void loadTextures() {
     /**
      * Creates an animation sequence from a texture sheet based on specified parameters.
      *
-     * @param sheet The texture sheet containing animation frames.
+     * @param sheet The region of the sprite sheet containing animation frames.
      * @param row The row in the texture sheet where the animation frames are located.
      * @param frameWidth The width of each animation frame.
      * @param frameHeight The height of each animation frame.
      * @param frameCount The total number of frames in the animation sequence.
      * @return An Animation object containing the sequence of texture regions for the animation.
      */
-    private Animation<TextureRegion> createAnimation(Texture sheet, int row, int frameWidth, int frameHeight, int frameCount) {
+    private Animation<TextureRegion> createAnimation(TextureRegion sheet, int row, int frameWidth, int frameHeight, int frameCount) {
         Array<TextureRegion> frames = new Array<>();
         for (int i = 0; i < frameCount; i++) {
             frames.add(new TextureRegion(sheet, i * frameWidth, row * frameHeight, frameWidth, frameHeight));
@@ -381,138 +434,52 @@ private Animation<TextureRegion> createAnimation(Texture sheet, int row, int fra
         return new Animation<>(0.1f, frames);
     }
     /**
-     * Loads the animation for the key not being possessed by the player.
+     * Gets the animation for the key not being possessed by the player.
+     * The animation is shared; every caller only keeps its own state time.
      *
      * @return An Animation object for the no-key state.
      */
     protected Animation<TextureRegion> loadNoKeyAnimation() {
-        Texture noKeySheet = new Texture(Gdx.files.internal("objects.OwOt.png")); // Make sure this path is correct
-
-        int frameWidth = 16; // Make sure these dimensions match your sprite sheet
-        int frameHeight = 16;
-        int animationFrames = 4; // Ensure you have 9 frames in the sprite sheet
-        int startCol = 0; // Starting column for trap animation frames (adjust as needed)
-        int startRow = 1; // Starting row for trap animation frames (adjust as needed)
-
-        Array<TextureRegion> noKeyFrames = new Array<>(TextureRegion.class);
-
-        for (int col = 0; col < animationFrames; col++) {
-            // Calculate the x and y position for each frame in the sprite sheet
-            int x = (startCol + col) * frameWidth;
-            int y = startRow * frameHeight;
-
-            noKeyFrames.add(new TextureRegion(noKeySheet, x, y, frameWidth, frameHeight));
-        }
-        return new Animation<>(0.1f, noKeyFrames);
+        return assets.getStrip("objects.OwOt.png", 0, 16, 16, 16, 4, 0.1f);
     }
     /**
-     * Loads the animation for traps within the game.
+     * Gets the animation for traps within the game.
+     * The animation is shared; every caller only keeps its own state time.
      *
      * @return An Animation object for traps.
      */
     protected Animation<TextureRegion> loadTrapAnimation() {
-        Texture trapSheet = new Texture(Gdx.files.internal("objects.png")); // Adjust the file name as needed
-
-        int frameWidth = 16; // Adjust the frame width as per your sprite sheet
-        int frameHeight = 16; // Adjust the frame height as per your sprite sheet
-        int animationFrames = 7;// Number of frames in the trap animation
-        int startCol = 4; // Starting column for trap animation frames (adjust as needed)
-        int startRow = 3; // Starting row for trap animation frames (adjust as needed)
-
-
-        Array<TextureRegion> trapFrames = new Array<>(TextureRegion.class);
-
-        // Extract frames for the trap animation
-        for (int col = 0; col < animationFrames; col++) {
-            // Calculate the x and y position for each frame in the sprite sheet
-            int x = (startCol + col) * frameWidth;
-            int y = startRow * frameHeight;
-
-            trapFrames.add(new TextureRegion(trapSheet, x, y, frameWidth, frameHeight));
-        }
-
-        return new Animation<>(0.1f, trapFrames); // Adjust the frame duration as needed
+        return assets.getStrip("objects.png", 4 * 16, 3 * 16, 16, 16, 7, 0.1f);
     }
     /**
-     * Loads the animation that plays when the player possesses the key.
+     * Gets the animation that plays when the player possesses the key.
+     * The animation is shared; every caller only keeps its own state time.
      *
      * @return An Animation object for the key possession state.
      */
     protected Animation<TextureRegion> loadKeyAnimation() {
-        Texture keySheet = new Texture(Gdx.files.internal("objects.OwOt.png"));
-
-        int frameWidth = 16;
-        int frameHeight = 16;
-        int animationFrames = 4;
-        int startCol = 0;
-        int startRow = 4;
-
-        Array<TextureRegion> keyFrames = new Array<>(TextureRegion.class);
-
-        for (int col = 0; col < animationFrames; col++) {
-            // Calculate the x and y position for each frame in the sprite sheet
-            int x = (startCol + col) * frameWidth;
-            int y = startRow * frameHeight;
-
-            keyFrames.add(new TextureRegion(keySheet, x, y, frameWidth, frameHeight));
-        }
-
-
-        return new Animation<>(0.1f, keyFrames); // Adjust the frame duration as needed
+        return assets.getStrip("objects.OwOt.png", 0, 4 * 16, 16, 16, 4, 0.1f);
     }
 
     /**
-     * Loads the death animation for enemies.
+     * Gets the death animation for enemies.
+     * The animation is shared; every caller only keeps its own state time.
      *
      * @return An Animation object for enemy death.
      */
 
     protected Animation<TextureRegion> loadEnemyDeathAnimation() {
-        Texture keySheet = new Texture(Gdx.files.internal("objects.OwOt.png"));
-
-        int frameWidth = 24;
-        int frameHeight = 24;
-        int animationFrames = 4;
-        int startCol = 4;
-        int startRow = 4;
-
-        Array<TextureRegion> keyFrames = new Array<>(TextureRegion.class);
-
-        for (int col = 0; col < animationFrames; col++) {
-            // Calculate the x and y position for each frame in the sprite sheet
-            int x = (startCol + col) * frameWidth;
-            int y = startRow * frameHeight;
-
-            keyFrames.add(new TextureRegion(keySheet, x, y, frameWidth, frameHeight));
-        }
-
-
-        return new Animation<>(0.1f, keyFrames);
+        return assets.getStrip("objects.OwOt.png", 4 * 24, 4 * 24, 24, 24, 4, 0.1f);
     }
     /**
-     * Loads the animation for lava in the game.
+     * Gets the animation for lava in the game.
+     * The animation is shared; every caller only keeps its own state time.
      *
      * @return An Animation object for lava.
      */
 
     protected Animation<TextureRegion> loadLavaAnimation() {
-        Texture lavaSheet = new Texture(Gdx.files.internal("lava.png")); // Adjust the file name as needed
-
-        int frameWidth = 16; // Adjust the frame width as per your sprite sheet
-        int frameHeight = 16; // Adjust the frame height as per your sprite sheet
-        int animationFrames = 45; // Number of frames in the lava animation
-
-        Array<TextureRegion> lavaFrames = new Array<>(TextureRegion.class);
-
-        // Extract frames for the lava animation from all columns in a single row
-        for (int col = 0; col < animationFrames; col++) {
-            // Calculate the x and y position for each frame in the sprite sheet
-
-
-            lavaFrames.add(new TextureRegion(lavaSheet, col*frameWidth, 0, frameWidth, frameHeight));
-        }
-
-        return new Animation<>(0.1f, lavaFrames); // Adjust the frame duration as needed
+        return assets.getStrip("lava.png", 0, 0, 16, 16, 45, 0.1f);
     }
 
     /**
@@ -523,8 +490,8 @@ public void dispose() {
         getScreen().hide(); // Hide the current screen
         getScreen().dispose(); // Dispose the current screen
         spriteBatch.dispose(); // Dispose the spriteBatch
+        levelLoader.dispose(); // Stop loading levels in the background
         skin.dispose(); // Dispose the skin
-        mazeElementsTexture.dispose(); // Dispose the texture
         // Dispose screens
         if (menuScreen != null) {
             menuScreen.dispose();
@@ -533,21 +500,9 @@ public void dispose() {
             gameScreen.dispose();
         }
 
-        // Dispose textures
-        if (mazeElementsTexture != null) {
-            mazeElementsTexture.dispose();
-        }
-        if (obstaclesTexture != null) {
-            obstaclesTexture.dispose();
-        }
-        if (mobsTexture != null) {
-            mobsTexture.dispose();
-        }
-        if (chestTexture != null) {
-            chestTexture.dispose();
-        }
-        if (collectiblesTexture != null) {
-            collectiblesTexture.dispose();
+        // Dispose textures, each of which was loaded once
+        if (assets != null) {
+            assets.dispose();
         }
 
         // Dispose music
@@ -620,6 +575,24 @@ public Animation<TextureRegion> getEnemyUpAnimation() {
         return enemyUpAnimation;
     }
 
+    /**
+     * Gets the walking animations of enemies in the order of {@link Direction}, shared by all enemies.
+     *
+     * @return The enemy animations; the array must not be modified.
+     */
+    public Animation<TextureRegion>[] getEnemyAnimations() {
+        return enemyAnimations;
+    }
+
+    /**
+     * Gets the registry holding the textures and shared animations of the game.
+     *
+     * @return The asset registry.
+     */
+    public AssetRegistry getAssets() {
+        return assets;
+    }
+
     public Animation<TextureRegion> getEnemyLeftAnimation() {
         return enemyLeftAnimation;
     }
@@ -653,15 +626,15 @@ public GameScreen getGameScreen() {
         return gameScreen;
     }
 
-    public Texture getMazeElementsTexture() {
+    public TextureRegion getMazeElementsTexture() {
         return mazeElementsTexture;
     }
 
-    public Texture getObstaclesTexture() {
+    public TextureRegion getObstaclesTexture() {
         return obstaclesTexture;
     }
 
-    public Texture getMobsTexture() {
+    public TextureRegion getMobsTexture() {
         return mobsTexture;
     }
 
@@ -709,11 +682,11 @@ public static TextureRegion getOpenChestTextureRegion() {
         return openChestTextureRegion;
     }
 
-    public Texture getChestTexture() {
+    public TextureRegion getChestTexture() {
         return chestTexture;
     }
 
-    public Texture getCollectiblesTexture() {
+    public TextureRegion getCollectiblesTexture() {
         return collectiblesTexture;
     }
     public void setPaused(boolean paused) {
@@ -743,4 +716,13 @@ public Animation<TextureRegion> getCharacterRightAnimationArmed() {
     public Maze getMaze() {
         return maze;
     }
+
+    /**
+     * Gets the level being played.
+     *
+     * @return The level, or null if no level was loaded yet.
+     */
+    public LevelData getLevel() {
+        return level;
+    }
 }
@@ -83,7 +83,7 @@ public void changed(ChangeEvent event, Actor actor) {
                 var fileChooserConfig = new NativeFileChooserConfiguration();
                 fileChooserConfig.title = "Pick a maze file"; // Title of the window that will be opened
                 fileChooserConfig.intent = NativeFileChooserIntent.OPEN; // We want to open a file
-                fileChooserConfig.nameFilter = (file, name) -> name.endsWith("properties"); // Only accept .properties files
+                fileChooserConfig.nameFilter = (file, name) -> name.endsWith("properties") || name.endsWith(BinaryMazeFile.EXTENSION); // Only accept maze files
                 fileChooserConfig.directory = Gdx.files.absolute(System.getProperty("user.home")); // Open at the user's home directory
                 game.getFileChooser().chooseFile(fileChooserConfig, new NativeFileChooserCallback() {
                     @Override
@@ -0,0 +1,152 @@
+package de.tum.cit.ase.maze;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks which tiles are occupied by moving entities such as enemies, separately from the static tiles of the maze.
+ * The tiles of a level never change while it is played, so the walkability grid, the path cache and everything else
+ * derived from them stay valid; entities only update this grid as they move.
+ * Several entities may share a tile, so the grid counts them.
+ * Tiles are addressed by their index y * width + x.
+ */
+public class OccupancyGrid {
+    private final int width;
+    private final int height;
+    private final short[] counts;
+    private long version; // Incremented whenever a tile becomes occupied or free
+    private final List<OccupancyListener> listeners = new ArrayList<>();
+
+    /**
+     * Creates a grid in which no tile is occupied.
+     *
+     * @param width The width of the maze in tiles.
+     * @param height The height of the maze in tiles.
+     */
+    public OccupancyGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.counts = new short[width * height];
+    }
+
+    /**
+     * Adds an entity to the tile at the given coordinates. Coordinates outside the grid are ignored.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     */
+    public void add(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return;
+        }
+        if (counts[y * width + x]++ == 0) {
+            notifyListeners(x, y, true);
+        }
+    }
+
+    /**
+     * Removes an entity from the tile at the given coordinates. Coordinates outside the grid and free tiles are ignored.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     */
+    public void remove(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height || counts[y * width + x] == 0) {
+            return;
+        }
+        if (--counts[y * width + x] == 0) {
+            notifyListeners(x, y, false);
+        }
+    }
+
+    /**
+     * Moves an entity from one tile to another.
+     *
+     * @param fromX The x-coordinate of the tile the entity leaves.
+     * @param fromY The y-coordinate of the tile the entity leaves.
+     * @param toX The x-coordinate of the tile the entity enters.
+     * @param toY The y-coordinate of the tile the entity enters.
+     */
+    public void move(int fromX, int fromY, int toX, int toY) {
+        if (fromX != toX || fromY != toY) {
+            remove(fromX, fromY);
+            add(toX, toY);
+        }
+    }
+
+    /**
+     * Removes all entities, for example when the level is restarted.
+     */
+    public void clear() {
+        for (int index = 0; index < counts.length; index++) {
+            if (counts[index] != 0) {
+                counts[index] = 0;
+                notifyListeners(index % width, index / width, false);
+            }
+        }
+    }
+
+    private void notifyListeners(int x, int y, boolean occupied) {
+        version++;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).occupancyChanged(x, y, occupied);
+        }
+    }
+
+    /**
+     * Checks whether any entity is on the tile at the given coordinates.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return true if the tile is inside the grid and occupied, false otherwise.
+     */
+    public boolean isOccupied(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && counts[y * width + x] != 0;
+    }
+
+    /**
+     * Gets the number of entities on the tile at the given coordinates.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return The number of entities, or 0 if the tile lies outside the grid.
+     */
+    public int getCount(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height ? counts[y * width + x] : 0;
+    }
+
+    /**
+     * Registers a listener that is notified whenever a tile becomes occupied or free.
+     *
+     * @param listener The listener to add.
+     */
+    public void addListener(OccupancyListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeListener(OccupancyListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets the version of the grid, which changes whenever a tile becomes occupied or free.
+     *
+     * @return The number of occupancy changes since the grid was created.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
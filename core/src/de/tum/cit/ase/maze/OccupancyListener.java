@@ -0,0 +1,15 @@
+package de.tum.cit.ase.maze;
+
+/**
+ * Interface for anything that has to react when moving entities enter or leave a tile.
+ */
+public interface OccupancyListener {
+    /**
+     * Called after the first entity entered a free tile or the last entity left it.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @param occupied Whether the tile is occupied now.
+     */
+    void occupancyChanged(int x, int y, boolean occupied);
+}
@@ -0,0 +1,167 @@
+package de.tum.cit.ase.maze;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least-recently-used cache of complete paths between pairs of tiles, shared by the pathfinders of a maze.
+ * On the next access after tiles of the maze changed, the cache catches up through the change journal of the maze:
+ * a tile that became blocked drops only the paths through it, while a tile that became walkable drops the whole
+ * cache, since cached paths may no longer be the shortest and unreachable tiles may have become reachable.
+ * Changes that keep the walkability of a tile keep every path.
+ * Tiles are addressed by their index y * width + x.
+ */
+public class PathCache {
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final Maze maze;
+    private final int capacity;
+    private final LinkedHashMap<Long, int[]> paths;
+    private long cachedVersion;
+    private int[] changes = new int[64];
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maze The maze whose version decides whether the cached paths are still valid.
+     * @param capacity The largest number of paths kept at once.
+     */
+    public PathCache(Maze maze, int capacity) {
+        this.maze = maze;
+        this.capacity = capacity;
+        this.cachedVersion = maze.getVersion();
+        // Access order turns the map into an LRU list: every lookup moves the entry to the end
+        this.paths = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+                if (size() > PathCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Looks up the path between two tiles.
+     *
+     * @param start The index of the start tile.
+     * @param goal The index of the end tile.
+     * @return The cached path excluding the start and including the end tile, an empty array if the end is known
+     *         to be unreachable, or null if the pair is not cached. The array must not be modified.
+     */
+    public int[] get(int start, int goal) {
+        dropIfStale();
+        int[] path = paths.get(key(start, goal));
+        if (path == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return path;
+    }
+
+    /**
+     * Stores the path between two tiles, evicting the least recently used path if the cache is full.
+     *
+     * @param start The index of the start tile.
+     * @param goal The index of the end tile.
+     * @param path The complete path excluding the start and including the end tile; empty if the end is unreachable.
+     */
+    public void put(int start, int goal, int[] path) {
+        dropIfStale();
+        paths.put(key(start, goal), path);
+    }
+
+    private void dropIfStale() {
+        long version = maze.getVersion();
+        if (cachedVersion == version) {
+            return;
+        }
+        if (!paths.isEmpty() && !dropBlockedPaths()) {
+            paths.clear();
+            invalidations++;
+        }
+        cachedVersion = version;
+    }
+
+    /**
+     * Drops the paths through tiles that became blocked since the cached version.
+     *
+     * @return false if the journal no longer covers the cached version or a tile became walkable,
+     *         so the whole cache has to be dropped.
+     */
+    private boolean dropBlockedPaths() {
+        ChangeJournal journal = maze.getJournal();
+        int count = journal.changesSince(cachedVersion, changes);
+        if (count > changes.length) {
+            changes = new int[Integer.highestOneBit(count) << 1];
+            count = journal.changesSince(cachedVersion, changes);
+        }
+        if (count < 0) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            long changeVersion = cachedVersion + i + 1;
+            boolean wasWalkable = WalkabilityGrid.isWalkableType(journal.getOldType(changeVersion));
+            boolean isWalkable = WalkabilityGrid.isWalkableType(journal.getNewType(changeVersion));
+            if (!wasWalkable && isWalkable) {
+                return false;
+            }
+            if (wasWalkable && !isWalkable) {
+                int tile = changes[i];
+                paths.values().removeIf(path -> contains(path, tile));
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(int[] path, int tile) {
+        for (int step : path) {
+            if (step == tile) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long key(int start, int goal) {
+        return ((long) start << 32) | (goal & 0xFFFFFFFFL);
+    }
+
+    public int size() {
+        dropIfStale();
+        return paths.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the number of times the cache was dropped because the maze changed.
+     *
+     * @return The number of invalidations.
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+}
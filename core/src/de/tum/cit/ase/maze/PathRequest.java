@@ -0,0 +1,66 @@
+package de.tum.cit.ase.maze;
+
+import java.util.concurrent.Future;
+
+/**
+ * A path search handed to the {@link PathfindingScheduler}. The search runs on a worker thread; once the scheduler
+ * has integrated its result on the render thread, the request is ready and the enemy that asked for it
+ * picks the path up on its next update. Enemies asking for the same tiles share one request.
+ * Tiles are addressed by their index y * width + x.
+ */
+public class PathRequest {
+    private final int start;
+    private final int goal;
+    private final long mazeVersion; // Version of the maze the request was made in
+    Future<int[]> future; // Set by the scheduler when the search is queued
+
+    private boolean ready;
+    private int[] path;
+
+    PathRequest(int start, int goal, long mazeVersion) {
+        this.start = start;
+        this.goal = goal;
+        this.mazeVersion = mazeVersion;
+    }
+
+    /**
+     * Marks the request as answered. Called by the scheduler on the render thread.
+     *
+     * @param path The path found, or null if the search failed or its result no longer fits the maze.
+     */
+    void complete(int[] path) {
+        this.path = path;
+        this.ready = true;
+    }
+
+    /**
+     * Checks whether the result of the search can be picked up.
+     *
+     * @return true once the scheduler has integrated the result.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Gets the path found by the search. Only valid once the request is ready.
+     *
+     * @return The path excluding the start and including the end tile, an empty array if the end is unreachable,
+     *         or null if the result was dropped and the path must be requested again. The array must not be modified.
+     */
+    public int[] getPath() {
+        return path;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getGoal() {
+        return goal;
+    }
+
+    public long getMazeVersion() {
+        return mazeVersion;
+    }
+}
@@ -0,0 +1,30 @@
+package de.tum.cit.ase.maze;
+
+/**
+ * Common interface of the grid pathfinders enemies can use to find their way through the maze.
+ * Paths are written into a caller-owned buffer of tile indices y * width + x, so a search does not allocate.
+ */
+public interface Pathfinder {
+    /**
+     * Finds a path from a start tile to an end tile and writes it into the given buffer.
+     * The path excludes the start tile and includes the end tile. If the buffer is too small, only the first
+     * out.length steps are written and the full length is still returned.
+     * Hierarchical pathfinders may return only the first part of the path; callers search again
+     * once they have walked it.
+     *
+     * @param startX The x-coordinate of the start tile.
+     * @param startY The y-coordinate of the start tile.
+     * @param endX The x-coordinate of the end tile.
+     * @param endY The y-coordinate of the end tile.
+     * @param out The buffer receiving the tile indices of the path.
+     * @return The number of steps in the returned path, or 0 if no path is found.
+     */
+    int findPath(int startX, int startY, int endX, int endY, int[] out);
+
+    /**
+     * Gets the width of the searched grid, which is needed to turn tile indices back into coordinates.
+     *
+     * @return The width of the grid in tiles.
+     */
+    int getWidth();
+}
@@ -0,0 +1,52 @@
+package de.tum.cit.ase.maze;
+
+/**
+ * Enum representing the pathfinding strategies a level can choose for its chasing enemies.
+ * A level selects one with the optional "pathfinder" entry of its .properties file.
+ */
+public enum PathfinderType {
+    FLOW_FIELD("flowfield"), // One distance map towards the player shared by all enemies
+    ASTAR("astar"), // One A* search per enemy
+    JUMP_POINT("jps"), // One Jump Point Search per enemy
+    HIERARCHICAL("hpa"), // Searches over cluster entrances, sharing one abstract graph
+    CORRIDOR("corridor"); // Searches over junctions, with corridors collapsed into single edges
+
+    private final String key;
+
+    PathfinderType(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Looks up the strategy with the given name as it is written in a level file.
+     *
+     * @param key The name of the strategy, for example "jps".
+     * @return The matching strategy, or FLOW_FIELD if the name is null or unknown.
+     */
+    public static PathfinderType fromKey(String key) {
+        if (key == null) {
+            return FLOW_FIELD;
+        }
+        for (PathfinderType type : values()) {
+            if (type.key.equalsIgnoreCase(key.trim())) {
+                return type;
+            }
+        }
+        System.err.println("Unknown pathfinder in maze file: " + key);
+        return FLOW_FIELD;
+    }
+
+    /**
+     * Checks whether pathfinders of this type may return only the first part of a path.
+     * Such paths must not be cached, because they do not lead all the way to the end tile.
+     *
+     * @return true for the hierarchical and the corridor pathfinder.
+     */
+    public boolean returnsPartialPaths() {
+        return this == HIERARCHICAL || this == CORRIDOR;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,232 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.Gdx;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the path searches of enemies on a small pool of worker threads, so a long search never stalls a frame.
+ * Workers search an immutable snapshot of the walkability grid, which is only copied again once the maze changed.
+ * A hierarchical or corridor graph of the snapshot is built once when the snapshot is taken and shared by all workers.
+ * Finished searches are integrated on the render thread by {@link #integrateResults(long)} within a time budget:
+ * each path is checked against the live grid and handed to the enemies that asked for it on their next update.
+ * <p>
+ * Enemies asking for the same pair of tiles share one request, unreachable tiles and paths found in the
+ * path cache are answered at once, and at most {@link #MAX_PENDING} searches are queued; further requests are refused until the queue
+ * drains, and the enemy simply asks again on its next update.
+ * Tiles are addressed by their index y * width + x.
+ */
+public class PathfindingScheduler {
+    public static final int MAX_PENDING = 64;
+    public static final long FRAME_BUDGET_NANOS = 1_000_000; // Time the render thread may spend on integrating results
+
+    private final Maze maze;
+    private final WalkabilityGrid grid;
+    private final int width;
+    private final int height;
+    private final boolean cachePaths; // Partial paths must not be cached
+    private final ExecutorService workers;
+    private final ThreadLocal<WorkerState> workerState = ThreadLocal.withInitial(WorkerState::new);
+
+    private final HashMap<Long, PathRequest> pending = new HashMap<>(); // Queued requests by start and end tile
+    private final ArrayDeque<PathRequest> inFlight = new ArrayDeque<>(); // Queued requests in submission order
+    private WalkabilityGrid snapshot;
+    private Supplier<Pathfinder> snapshotPathfinders; // Creates the pathfinders of the workers over the snapshot
+
+    private long submitted;
+    private long coalesced;
+    private long rejected;
+    private long dropped;
+
+    /**
+     * Per-thread search state. A worker creates a new pathfinder whenever it is given a newer snapshot.
+     */
+    private static class WorkerState {
+        private Supplier<Pathfinder> pathfinders;
+        private Pathfinder pathfinder;
+        private int[] buffer = new int[64];
+    }
+
+    /**
+     * Creates a scheduler with one or two worker threads, depending on the number of processors.
+     *
+     * @param maze The maze whose enemies request paths.
+     */
+    public PathfindingScheduler(Maze maze) {
+        this(maze, Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1)));
+    }
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param maze The maze whose enemies request paths.
+     * @param threads The number of worker threads.
+     */
+    public PathfindingScheduler(Maze maze, int threads) {
+        this.maze = maze;
+        this.grid = maze.getWalkabilityGrid();
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.cachePaths = !maze.getPathfinderType().returnsPartialPaths();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "pathfinding-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true); // Never keeps the game from exiting
+            return thread;
+        });
+    }
+
+    /**
+     * Requests a path from a start tile to an end tile.
+     *
+     * @param startX The x-coordinate of the start tile.
+     * @param startY The y-coordinate of the start tile.
+     * @param endX The x-coordinate of the end tile.
+     * @param endY The y-coordinate of the end tile.
+     * @return The request to poll, which may already be ready, or null if the queue is full.
+     */
+    public PathRequest request(int startX, int startY, int endX, int endY) {
+        if (!maze.getConnectivityIndex().isReachable(startX, startY, endX, endY)) {
+            // No search needed, the end tile is outside the maze or in another region of it
+            PathRequest request = new PathRequest(-1, -1, maze.getVersion());
+            request.complete(new int[0]);
+            return request;
+        }
+        int start = startY * width + startX;
+        int goal = endY * width + endX;
+        long key = ((long) start << 32) | goal;
+
+        PathRequest existing = pending.get(key);
+        if (existing != null) {
+            coalesced++;
+            return existing;
+        }
+        PathRequest request = new PathRequest(start, goal, maze.getVersion());
+        if (cachePaths) {
+            int[] cached = maze.getPathCache().get(start, goal);
+            if (cached != null) {
+                request.complete(cached);
+                return request;
+            }
+        }
+        if (pending.size() >= MAX_PENDING) {
+            rejected++;
+            return null;
+        }
+
+        if (snapshot == null || snapshot.getVersion() != grid.getVersion()) {
+            snapshot = grid.snapshot();
+            snapshotPathfinders = maze.createSnapshotPathfinders(snapshot);
+        }
+        Supplier<Pathfinder> pathfinders = snapshotPathfinders;
+        request.future = workers.submit(() -> search(pathfinders, startX, startY, endX, endY));
+        pending.put(key, request);
+        inFlight.add(request);
+        submitted++;
+        return request;
+    }
+
+    /**
+     * Runs one search on a worker thread.
+     */
+    private int[] search(Supplier<Pathfinder> pathfinders, int startX, int startY, int endX, int endY) {
+        WorkerState state = workerState.get();
+        if (state.pathfinders != pathfinders) {
+            state.pathfinders = pathfinders;
+            state.pathfinder = pathfinders.get();
+        }
+        int length = state.pathfinder.findPath(startX, startY, endX, endY, state.buffer);
+        if (length > state.buffer.length) {
+            state.buffer = new int[Integer.highestOneBit(length) << 1];
+            length = state.pathfinder.findPath(startX, startY, endX, endY, state.buffer);
+        }
+        return Arrays.copyOf(state.buffer, length);
+    }
+
+    /**
+     * Hands finished searches to the enemies waiting for them. Called once per frame on the render thread.
+     * Paths through tiles that were blocked after the snapshot was taken are dropped, so the enemy asks again.
+     *
+     * @param budgetNanos The time this call may take; remaining results are integrated in the next frame.
+     */
+    public void integrateResults(long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        Iterator<PathRequest> iterator = inFlight.iterator();
+        while (iterator.hasNext() && System.nanoTime() < deadline) {
+            PathRequest request = iterator.next();
+            if (!request.future.isDone()) {
+                continue;
+            }
+            iterator.remove();
+            pending.remove(((long) request.getStart() << 32) | request.getGoal());
+
+            int[] path = null;
+            try {
+                path = request.future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                Gdx.app.error("PathfindingScheduler", "Path search failed", e.getCause());
+            }
+            if (path != null && !isStillWalkable(path)) {
+                path = null;
+                dropped++;
+            }
+            if (path != null && cachePaths && request.getMazeVersion() == maze.getVersion()) {
+                maze.getPathCache().put(request.getStart(), request.getGoal(), path);
+            }
+            request.complete(path);
+        }
+    }
+
+    private boolean isStillWalkable(int[] path) {
+        for (int tile : path) {
+            if (!grid.isWalkable(tile)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops the worker threads. Queued searches are abandoned.
+     */
+    public void dispose() {
+        workers.shutdownNow();
+        pending.clear();
+        inFlight.clear();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    /**
+     * Gets the number of requests that were answered by a search already queued for the same tiles.
+     *
+     * @return The number of coalesced requests.
+     */
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,219 @@
+package de.tum.cit.ase.maze;
+
+import java.util.Arrays;
+
+/**
+ * A distance map rooted at the player's tile, shared by all chasing enemies.
+ * The map stores for every walkable tile the number of steps to the player, so an enemy finds its next step
+ * by looking at its four neighbours instead of running its own search.
+ * <p>
+ * The map is maintained incrementally with Lifelong Planning A* (the backward search D* Lite is built on):
+ * every tile keeps its current distance and a one-step lookahead, and only tiles where the two disagree are queued.
+ * When the player enters another tile or a tile of the maze changes, only the affected tiles are queued again,
+ * and the queue is only worked off as far as the enemies actually ask, so distances beyond the farthest chaser
+ * are never repaired. No heuristic is used, which keeps the search tree valid for every enemy at once.
+ * Tiles are addressed by their index y * width + x.
+ */
+public class PlayerFlowField implements WalkabilityListener {
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final WalkabilityGrid grid;
+    private final int width;
+    private final int height;
+    private final int[] distance; // Steps to the player as currently settled
+    private final int[] lookahead; // One more than the smallest settled distance of the neighbours
+    private final IndexedMinHeap inconsistent; // Tiles whose distance and lookahead differ
+
+    private int targetTile = -1;
+    private int expansions;
+
+    /**
+     * Creates a flow field over the given walkability grid and registers it for changes of the grid.
+     * The field is empty until it is first targeted.
+     *
+     * @param grid The walkability grid of the maze.
+     */
+    public PlayerFlowField(WalkabilityGrid grid) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.distance = new int[width * height];
+        this.lookahead = new int[width * height];
+        this.inconsistent = new IndexedMinHeap(width * height);
+        Arrays.fill(distance, UNREACHED);
+        Arrays.fill(lookahead, UNREACHED);
+        grid.addListener(this);
+    }
+
+    /**
+     * Points the field at the tile the player stands on. If this is a different tile than before,
+     * the old and new target tiles are queued for repair; otherwise the call does nothing.
+     *
+     * @param tileX The x-coordinate of the player's tile.
+     * @param tileY The y-coordinate of the player's tile.
+     */
+    public void retarget(int tileX, int tileY) {
+        if (tileX < 0 || tileY < 0 || tileX >= width || tileY >= height) {
+            return;
+        }
+        int tile = tileY * width + tileX;
+        if (tile == targetTile) {
+            return;
+        }
+        int previousTarget = targetTile;
+        targetTile = tile;
+        if (previousTarget >= 0) {
+            updateTile(previousTarget);
+        }
+        updateTile(tile);
+    }
+
+    /**
+     * Queues the changed tile for repair. Its neighbours follow once the tile's distance is settled.
+     */
+    @Override
+    public void walkabilityChanged(int x, int y, boolean walkable) {
+        updateTile(y * width + x);
+    }
+
+    /**
+     * Recomputes the lookahead of a tile and queues it if it no longer matches the settled distance.
+     * The target itself is always at distance 0, even if enemies cannot stand on it.
+     */
+    private void updateTile(int tile) {
+        int value;
+        if (tile == targetTile) {
+            value = 0;
+        } else if (!grid.isWalkable(tile)) {
+            value = UNREACHED;
+        } else {
+            int x = tile % width;
+            int best = UNREACHED;
+            if (x + 1 < width) best = Math.min(best, distance[tile + 1]);
+            if (x > 0) best = Math.min(best, distance[tile - 1]);
+            if (tile + width < distance.length) best = Math.min(best, distance[tile + width]);
+            if (tile >= width) best = Math.min(best, distance[tile - width]);
+            value = best == UNREACHED ? UNREACHED : best + 1;
+        }
+        lookahead[tile] = value;
+
+        if (distance[tile] != value) {
+            inconsistent.insertOrUpdate(tile, Math.min(distance[tile], value));
+        } else {
+            inconsistent.remove(tile);
+        }
+    }
+
+    /**
+     * Settles queued tiles in order of distance until the distance of the given tile is final.
+     *
+     * @param tile The tile an enemy asks about.
+     */
+    private void settle(int tile) {
+        while (!inconsistent.isEmpty()
+                && (inconsistent.peekKey() < Math.min(distance[tile], lookahead[tile]) || distance[tile] != lookahead[tile])) {
+            int current = inconsistent.poll();
+            if (distance[current] > lookahead[current]) {
+                // The tile got closer to the player
+                distance[current] = lookahead[current];
+            } else {
+                // The tile got farther away; its neighbours may have routed through it
+                distance[current] = UNREACHED;
+                updateTile(current);
+            }
+            updateNeighbors(current);
+            expansions++;
+        }
+    }
+
+    private void updateNeighbors(int tile) {
+        int x = tile % width;
+        if (x + 1 < width) updateTile(tile + 1);
+        if (x > 0) updateTile(tile - 1);
+        if (tile + width < distance.length) updateTile(tile + width);
+        if (tile >= width) updateTile(tile - width);
+    }
+
+    /**
+     * Finds the neighbouring tile that leads towards the player in the fewest steps.
+     *
+     * @param tileX The x-coordinate of the tile the enemy stands on.
+     * @param tileY The y-coordinate of the tile the enemy stands on.
+     * @return The index y * width + x of the next tile, or -1 if the player cannot be reached from this tile.
+     */
+    public int nextStep(int tileX, int tileY) {
+        if (tileX < 0 || tileY < 0 || tileX >= width || tileY >= height || targetTile < 0) {
+            return -1;
+        }
+        int tile = tileY * width + tileX;
+        int best = -1;
+        int bestDistance;
+        if (tile == targetTile) {
+            bestDistance = 0;
+        } else if (grid.isWalkable(tile)) {
+            settle(tile);
+            bestDistance = distance[tile];
+        } else {
+            // Enemies may stand on tiles they cannot walk on; they can still step off towards the player
+            bestDistance = UNREACHED;
+            if (tileX + 1 < width) settle(tile + 1);
+            if (tileX > 0) settle(tile - 1);
+            if (tileY + 1 < height) settle(tile + width);
+            if (tileY > 0) settle(tile - width);
+        }
+
+        if (tileX + 1 < width && distance[tile + 1] < bestDistance) {
+            best = tile + 1;
+            bestDistance = distance[best];
+        }
+        if (tileX > 0 && distance[tile - 1] < bestDistance) {
+            best = tile - 1;
+            bestDistance = distance[best];
+        }
+        if (tileY + 1 < height && distance[tile + width] < bestDistance) {
+            best = tile + width;
+            bestDistance = distance[best];
+        }
+        if (tileY > 0 && distance[tile - width] < bestDistance) {
+            best = tile - width;
+        }
+        return best;
+    }
+
+    /**
+     * Gets the number of steps from the given tile to the player.
+     *
+     * @param tileX The x-coordinate of the tile.
+     * @param tileY The y-coordinate of the tile.
+     * @return The number of steps, or -1 if the player cannot be reached from this tile.
+     */
+    public int getDistance(int tileX, int tileY) {
+        if (tileX < 0 || tileY < 0 || tileX >= width || tileY >= height || targetTile < 0) {
+            return -1;
+        }
+        int tile = tileY * width + tileX;
+        settle(tile);
+        return distance[tile] == UNREACHED ? -1 : distance[tile];
+    }
+
+    /**
+     * Unregisters the field from the walkability grid. The grid belongs to the maze, which outlives the game screen
+     * when a level is restarted, so a field that is no longer used must not keep receiving its changes.
+     */
+    public void dispose() {
+        grid.removeListener(this);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the number of tiles settled since the field was created, a measure of the work spent on repairs.
+     *
+     * @return The number of settled tiles.
+     */
+    public int getExpansions() {
+        return expansions;
+    }
+}
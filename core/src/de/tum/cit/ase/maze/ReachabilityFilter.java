@@ -0,0 +1,46 @@
+package de.tum.cit.ase.maze;
+
+/**
+ * Answers path queries between unconnected tiles at once, using the {@link ConnectivityIndex} of the maze,
+ * and passes all other queries on. Without it, a pathfinder asked for an unreachable tile searches every tile
+ * it can reach before giving up, and a chasing enemy asks again on every update.
+ */
+public class ReachabilityFilter implements Pathfinder {
+    private final Pathfinder delegate;
+    private final ConnectivityIndex connectivity;
+    private int filtered;
+
+    /**
+     * Creates a filter in front of a pathfinder.
+     *
+     * @param delegate The pathfinder that searches the paths between connected tiles.
+     * @param connectivity The connectivity index of the grid the pathfinder searches.
+     */
+    public ReachabilityFilter(Pathfinder delegate, ConnectivityIndex connectivity) {
+        this.delegate = delegate;
+        this.connectivity = connectivity;
+    }
+
+    @Override
+    public int findPath(int startX, int startY, int endX, int endY, int[] out) {
+        if (!connectivity.isReachable(startX, startY, endX, endY)) {
+            filtered++;
+            return 0;
+        }
+        return delegate.findPath(startX, startY, endX, endY, out);
+    }
+
+    @Override
+    public int getWidth() {
+        return delegate.getWidth();
+    }
+
+    /**
+     * Gets the number of queries answered without searching.
+     *
+     * @return The number of filtered queries.
+     */
+    public int getFiltered() {
+        return filtered;
+    }
+}
@@ -0,0 +1,258 @@
+package de.tum.cit.ase.maze;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.util.Arrays;
+
+/**
+ * Draws the tiles that never move, the floor, walls, the entry and the exit, from geometry cached on the GPU.
+ * The maze is split into chunks of {@link #CHUNK_SIZE} x {@link #CHUNK_SIZE} tiles, and each visible chunk is drawn
+ * with a single {@link SpriteCache} draw call instead of one sprite batch submission per tile.
+ * <p>
+ * Only chunks near the camera are built. Their caches are kept in a pool of slots, and a chunk that was not drawn
+ * for a while gives its slot to the next chunk coming into view. The layer follows the change journal of the maze
+ * and rebuilds only the chunks containing changed tiles.
+ */
+public class StaticTileLayer implements Disposable {
+    public static final int CHUNK_SHIFT = 5;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int SPRITES_PER_CHUNK = CHUNK_SIZE * CHUNK_SIZE * 2; // A floor and at most one tile on it
+    private static final int INITIAL_SLOTS = 16;
+
+    /**
+     * A cache holding the geometry of one chunk.
+     */
+    private static class Slot {
+        final SpriteCache cache;
+        int cacheId;
+        int chunk = -1;
+        long lastDrawn = -1; // Frame in which the chunk was last drawn
+        boolean dirty;
+
+        Slot(ShaderProgram shader) {
+            this.cache = new SpriteCache(SPRITES_PER_CHUNK, shader, true);
+        }
+    }
+
+    private final Maze maze;
+    private final int tileSize;
+    private final int chunksX;
+    private final int chunksY;
+    private final int[] slotOfChunk; // Slot holding each chunk, or -1
+    private final ShaderProgram shader; // Shared by the caches of all slots
+    private final Array<Slot> slots = new Array<>();
+    private final Array<Slot> visible = new Array<>(false, INITIAL_SLOTS);
+
+    private long cachedVersion;
+    private int[] changes = new int[64];
+    private long frame;
+    private int drawnChunks;
+    private long rebuilds;
+
+    /**
+     * Creates the layer of a maze. No chunk is built before it is first drawn.
+     *
+     * @param maze The maze whose tiles are drawn.
+     * @param tileSize The size of a tile in world units.
+     */
+    public StaticTileLayer(Maze maze, int tileSize) {
+        this.maze = maze;
+        this.tileSize = tileSize;
+        this.chunksX = (maze.getWidth() + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+        this.chunksY = (maze.getHeight() + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+        this.slotOfChunk = new int[chunksX * chunksY];
+        Arrays.fill(slotOfChunk, -1);
+        this.shader = SpriteCache.createDefaultShader();
+        this.cachedVersion = maze.getVersion();
+        for (int i = 0; i < INITIAL_SLOTS; i++) {
+            slots.add(new Slot(shader));
+        }
+    }
+
+    /**
+     * Draws the chunks overlapping a rectangle of the world, building or rebuilding them first if needed.
+     * Must not be called between begin and end of a sprite batch.
+     *
+     * @param projection The combined matrix of the camera.
+     * @param minX The left edge of the view.
+     * @param minY The bottom edge of the view.
+     * @param maxX The right edge of the view.
+     * @param maxY The top edge of the view.
+     */
+    public void render(Matrix4 projection, float minX, float minY, float maxX, float maxY) {
+        frame++;
+        applyChanges();
+        int chunkWorldSize = CHUNK_SIZE * tileSize;
+        int fromX = Math.max(0, (int) Math.floor(minX / chunkWorldSize));
+        int fromY = Math.max(0, (int) Math.floor(minY / chunkWorldSize));
+        int toX = Math.min(chunksX - 1, (int) Math.floor(maxX / chunkWorldSize));
+        int toY = Math.min(chunksY - 1, (int) Math.floor(maxY / chunkWorldSize));
+
+        visible.clear();
+        for (int chunkY = fromY; chunkY <= toY; chunkY++) {
+            for (int chunkX = fromX; chunkX <= toX; chunkX++) {
+                int chunk = chunkY * chunksX + chunkX;
+                Slot slot = slotOfChunk[chunk] >= 0 ? slots.get(slotOfChunk[chunk]) : acquire(chunk);
+                if (slot.dirty) {
+                    build(slot);
+                }
+                slot.lastDrawn = frame;
+                visible.add(slot);
+            }
+        }
+        // The sprite batch disables blending when it ends; the wall, entry and exit regions have transparent pixels
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        for (Slot slot : visible) {
+            slot.cache.setProjectionMatrix(projection);
+            slot.cache.begin();
+            slot.cache.draw(slot.cacheId);
+            slot.cache.end();
+        }
+        drawnChunks = visible.size;
+    }
+
+    /**
+     * Marks the chunks containing tiles changed since the last frame for rebuilding.
+     */
+    private void applyChanges() {
+        long version = maze.getVersion();
+        if (version == cachedVersion) {
+            return;
+        }
+        ChangeJournal journal = maze.getJournal();
+        int count = journal.changesSince(cachedVersion, changes);
+        if (count > changes.length) {
+            changes = new int[Integer.highestOneBit(count) << 1];
+            count = journal.changesSince(cachedVersion, changes);
+        }
+        if (count < 0) {
+            for (Slot slot : slots) {
+                slot.dirty = slot.chunk >= 0; // Too many changes to tell which chunks they touched
+            }
+        } else {
+            int width = maze.getWidth();
+            for (int i = 0; i < count; i++) {
+                int x = changes[i] % width;
+                int y = changes[i] / width;
+                int slot = slotOfChunk[(y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT)];
+                if (slot >= 0) {
+                    slots.get(slot).dirty = true;
+                }
+            }
+        }
+        cachedVersion = version;
+    }
+
+    /**
+     * Gives a chunk a slot: a free one, the one drawn longest ago, or a new one if every slot is in view.
+     */
+    private Slot acquire(int chunk) {
+        int best = -1;
+        for (int i = 0; i < slots.size; i++) {
+            Slot slot = slots.get(i);
+            if (slot.lastDrawn < frame && (best < 0 || slot.lastDrawn < slots.get(best).lastDrawn)) {
+                best = i;
+            }
+        }
+        if (best < 0) {
+            slots.add(new Slot(shader)); // The camera sees more chunks than there are slots
+            best = slots.size - 1;
+        }
+        Slot slot = slots.get(best);
+        if (slot.chunk >= 0) {
+            slotOfChunk[slot.chunk] = -1;
+        }
+        slot.chunk = chunk;
+        slot.dirty = true;
+        slotOfChunk[chunk] = best;
+        return slot;
+    }
+
+    /**
+     * Records the sprites of the chunk of a slot into its cache.
+     */
+    private void build(Slot slot) {
+        int x0 = (slot.chunk % chunksX) << CHUNK_SHIFT;
+        int y0 = (slot.chunk / chunksX) << CHUNK_SHIFT;
+        int x1 = Math.min(maze.getWidth(), x0 + CHUNK_SIZE);
+        int y1 = Math.min(maze.getHeight(), y0 + CHUNK_SIZE);
+        TextureRegion floor = MazeRunnerGame.getFloorTextureRegion();
+        slot.cache.clear();
+        slot.cache.beginCache();
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                slot.cache.add(floor, x * tileSize, y * tileSize);
+                TextureRegion tile = regionOf(maze.getElementAt(x, y));
+                if (tile != null) {
+                    slot.cache.add(tile, x * tileSize, y * tileSize);
+                }
+            }
+        }
+        slot.cacheId = slot.cache.endCache();
+        slot.dirty = false;
+        rebuilds++;
+    }
+
+    /**
+     * Gets the texture drawn on top of the floor for a tile type.
+     *
+     * @return The texture, or null if the tile is drawn by a maze element or not at all.
+     */
+    private static TextureRegion regionOf(int type) {
+        switch (type) {
+            case 0: // Wall
+                return MazeRunnerGame.getWallTextureRegion();
+            case 1: // Entry point
+                return MazeRunnerGame.getEntryPointTextureRegion();
+            case 2: // Exit
+                return MazeRunnerGame.getExitTextureRegion();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Checks whether the layer draws tiles of a type, so the maze elements of that type need not be drawn.
+     *
+     * @param type The tile type.
+     * @return true for the floor, walls, the entry and the exit.
+     */
+    public static boolean drawsType(int type) {
+        return type == -1 || regionOf(type) != null;
+    }
+
+    /**
+     * Gets the number of chunks drawn in the last frame, which is also the number of draw calls.
+     *
+     * @return The number of drawn chunks.
+     */
+    public int getDrawnChunks() {
+        return drawnChunks;
+    }
+
+    /**
+     * Gets the number of times a chunk was built, including rebuilds after tile changes.
+     *
+     * @return The number of builds.
+     */
+    public long getRebuilds() {
+        return rebuilds;
+    }
+
+    @Override
+    public void dispose() {
+        for (Slot slot : slots) {
+            slot.cache.dispose();
+        }
+        slots.clear();
+        shader.dispose();
+    }
+}
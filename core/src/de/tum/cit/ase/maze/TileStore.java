@@ -0,0 +1,327 @@
+package de.tum.cit.ase.maze;
+
+import java.util.Arrays;
+
+/**
+ * Stores the tiles of a maze in chunks of {@link #CHUNK_SIZE} x {@link #CHUNK_SIZE} tiles, so levels far larger than
+ * a dense array allows stay playable. A chunk in which every tile has the same type, such as a solid block of wall
+ * or an empty hall, is kept as that one value. Other chunks hold one byte per tile.
+ * <p>
+ * A store backed by a {@link BinaryMazeFile} loads each chunk when it is first read, for example because the camera
+ * or an enemy came close to it. At most {@code maxLoadedChunks} chunks are held in memory; reading another
+ * chunk evicts the least recently used one, which is read from the file again when needed.
+ * Chunks that were changed by {@link #set(int, int, int)} are never evicted.
+ * Reading and writing happens on the render thread.
+ */
+public class TileStore {
+    public static final int CHUNK_SHIFT = 6;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    public static final int DEFAULT_MAX_LOADED_CHUNKS = 1024; // 4 MB of dense chunks
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final byte UNLOADED = 0;
+    private static final byte UNIFORM = 1;
+    private static final byte LOADED = 2; // Dense and in the LRU list
+    private static final byte MODIFIED = 3; // Dense, changed since it was loaded and never evicted
+
+    private final int width;
+    private final int height;
+    private final int chunksX;
+    private final BinaryMazeFile source; // Null if every chunk is in memory
+    private final int maxLoadedChunks;
+
+    private final byte[] state;
+    private final byte[] uniformType;
+    private final byte[][] dense;
+
+    // Loaded chunks as a doubly linked list from the most to the least recently used
+    private final int[] newer;
+    private final int[] older;
+    private int newest = -1;
+    private int oldest = -1;
+    private int loadedCount;
+    private byte[] spare; // Array of a chunk that turned out to be uniform, reused by the next load
+
+    private long loads;
+    private long evictions;
+
+    private TileStore(int width, int height, BinaryMazeFile source, int maxLoadedChunks) {
+        this.width = width;
+        this.height = height;
+        this.chunksX = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+        int chunks = chunksX * ((height + CHUNK_MASK) >> CHUNK_SHIFT);
+        this.source = source;
+        this.maxLoadedChunks = Math.max(1, maxLoadedChunks);
+        this.state = new byte[chunks];
+        this.uniformType = new byte[chunks];
+        this.dense = new byte[chunks][];
+        this.newer = new int[chunks];
+        this.older = new int[chunks];
+    }
+
+    /**
+     * Creates a store holding the given tiles. Uniform chunks are compacted right away; the array is not kept.
+     *
+     * @param width The width of the maze in tiles.
+     * @param height The height of the maze in tiles.
+     * @param tiles The tile types at y * width + x.
+     * @return The store.
+     */
+    public static TileStore fromTiles(int width, int height, byte[] tiles) {
+        TileStore store = new TileStore(width, height, null, Integer.MAX_VALUE);
+        byte[] buffer = new byte[CHUNK_SIZE * CHUNK_SIZE];
+        for (int chunk = 0; chunk < store.state.length; chunk++) {
+            int x0 = (chunk % store.chunksX) << CHUNK_SHIFT;
+            int y0 = (chunk / store.chunksX) << CHUNK_SHIFT;
+            int columns = Math.min(CHUNK_SIZE, width - x0);
+            int rows = Math.min(CHUNK_SIZE, height - y0);
+            for (int row = 0; row < rows; row++) {
+                System.arraycopy(tiles, (y0 + row) * width + x0, buffer, row << CHUNK_SHIFT, columns);
+            }
+            if (store.compact(chunk, buffer, columns, rows)) {
+                store.pin(chunk); // Nothing to reload it from
+                buffer = new byte[CHUNK_SIZE * CHUNK_SIZE];
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Creates a store that loads its chunks from a binary maze file as they are read.
+     *
+     * @param file The memory-mapped level file.
+     * @param maxLoadedChunks The number of dense chunks held in memory at most.
+     * @return The store.
+     */
+    public static TileStore fromFile(BinaryMazeFile file, int maxLoadedChunks) {
+        return new TileStore(file.getWidth(), file.getHeight(), file, maxLoadedChunks);
+    }
+
+    /**
+     * Gets the type of a tile. The coordinates are not bounds checked.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return The type of the tile.
+     */
+    public int get(int x, int y) {
+        int chunk = (y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT);
+        byte[] tiles = dense[chunk];
+        if (tiles == null) {
+            if (state[chunk] == UNLOADED) {
+                load(chunk);
+                return get(x, y);
+            }
+            return uniformType[chunk];
+        }
+        if (chunk != newest && state[chunk] == LOADED) {
+            unlink(chunk);
+            linkNewest(chunk);
+        }
+        return tiles[((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)];
+    }
+
+    /**
+     * Sets the type of a tile. The chunk of the tile stays in memory from now on.
+     * The coordinates are not bounds checked.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @param type The new type of the tile.
+     */
+    public void set(int x, int y, int type) {
+        int chunk = (y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT);
+        if (state[chunk] == UNLOADED) {
+            load(chunk);
+        }
+        if (state[chunk] == UNIFORM) {
+            if (uniformType[chunk] == type) {
+                return;
+            }
+            byte[] tiles = new byte[CHUNK_SIZE * CHUNK_SIZE];
+            Arrays.fill(tiles, uniformType[chunk]);
+            dense[chunk] = tiles;
+            state[chunk] = MODIFIED;
+        } else if (state[chunk] == LOADED) {
+            pin(chunk);
+        }
+        dense[chunk][((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)] = (byte) type;
+    }
+
+    /**
+     * Takes a loaded chunk out of the LRU list, so it is never evicted.
+     */
+    private void pin(int chunk) {
+        unlink(chunk);
+        loadedCount--;
+        state[chunk] = MODIFIED;
+    }
+
+    /**
+     * Loads the chunks overlapping a rectangle of tiles ahead of time, for example the view of the camera.
+     * Coordinates outside the maze are clamped.
+     *
+     * @param minX The x-coordinate of the lower left tile.
+     * @param minY The y-coordinate of the lower left tile.
+     * @param maxX The x-coordinate of the upper right tile.
+     * @param maxY The y-coordinate of the upper right tile.
+     */
+    public void prefetch(int minX, int minY, int maxX, int maxY) {
+        if (source == null) {
+            return;
+        }
+        int fromX = Math.max(0, minX) >> CHUNK_SHIFT;
+        int fromY = Math.max(0, minY) >> CHUNK_SHIFT;
+        int toX = Math.min(width - 1, maxX) >> CHUNK_SHIFT;
+        int toY = Math.min(height - 1, maxY) >> CHUNK_SHIFT;
+        for (int chunkY = fromY; chunkY <= toY; chunkY++) {
+            for (int chunkX = fromX; chunkX <= toX; chunkX++) {
+                int chunk = chunkY * chunksX + chunkX;
+                if (state[chunk] == UNLOADED) {
+                    load(chunk);
+                } else if (state[chunk] == LOADED && chunk != newest) {
+                    unlink(chunk);
+                    linkNewest(chunk);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a chunk from the file, evicting the least recently used chunk if too many are loaded.
+     */
+    private void load(int chunk) {
+        int x0 = (chunk % chunksX) << CHUNK_SHIFT;
+        int y0 = (chunk / chunksX) << CHUNK_SHIFT;
+        int columns = Math.min(CHUNK_SIZE, width - x0);
+        int rows = Math.min(CHUNK_SIZE, height - y0);
+        byte[] tiles = spare;
+        spare = null;
+        if (tiles == null) {
+            tiles = loadedCount >= maxLoadedChunks ? evictOldest() : new byte[CHUNK_SIZE * CHUNK_SIZE];
+        }
+        for (int row = 0; row < rows; row++) {
+            source.readTiles((y0 + row) * width + x0, tiles, row << CHUNK_SHIFT, columns);
+        }
+        if (!compact(chunk, tiles, columns, rows)) {
+            spare = tiles;
+        }
+        loads++;
+    }
+
+    /**
+     * Stores a filled chunk either as its one type or as dense tiles.
+     *
+     * @return true if the array was kept as the dense tiles of the chunk.
+     */
+    private boolean compact(int chunk, byte[] tiles, int columns, int rows) {
+        byte first = tiles[0];
+        for (int row = 0; row < rows; row++) {
+            int offset = row << CHUNK_SHIFT;
+            for (int column = 0; column < columns; column++) {
+                if (tiles[offset + column] != first) {
+                    dense[chunk] = tiles;
+                    state[chunk] = LOADED;
+                    linkNewest(chunk);
+                    loadedCount++;
+                    return true;
+                }
+            }
+        }
+        uniformType[chunk] = first;
+        state[chunk] = UNIFORM;
+        return false;
+    }
+
+    /**
+     * Copies all tiles into one array, loading every chunk that is not in memory.
+     *
+     * @return The tile types at y * width + x.
+     */
+    public byte[] toArray() {
+        byte[] tiles = new byte[width * height];
+        for (int chunk = 0; chunk < state.length; chunk++) {
+            if (state[chunk] == UNLOADED) {
+                load(chunk);
+            }
+            int x0 = (chunk % chunksX) << CHUNK_SHIFT;
+            int y0 = (chunk / chunksX) << CHUNK_SHIFT;
+            int columns = Math.min(CHUNK_SIZE, width - x0);
+            int rows = Math.min(CHUNK_SIZE, height - y0);
+            for (int row = 0; row < rows; row++) {
+                int offset = (y0 + row) * width + x0;
+                if (state[chunk] == UNIFORM) {
+                    Arrays.fill(tiles, offset, offset + columns, uniformType[chunk]);
+                } else {
+                    System.arraycopy(dense[chunk], row << CHUNK_SHIFT, tiles, offset, columns);
+                }
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Unloads the least recently used chunk.
+     *
+     * @return The array of the evicted chunk, to be reused.
+     */
+    private byte[] evictOldest() {
+        int chunk = oldest;
+        byte[] tiles = dense[chunk];
+        unlink(chunk);
+        dense[chunk] = null;
+        state[chunk] = UNLOADED;
+        loadedCount--;
+        evictions++;
+        return tiles;
+    }
+
+    private void linkNewest(int chunk) {
+        newer[chunk] = -1;
+        older[chunk] = newest;
+        if (newest >= 0) {
+            newer[newest] = chunk;
+        } else {
+            oldest = chunk;
+        }
+        newest = chunk;
+    }
+
+    private void unlink(int chunk) {
+        if (newer[chunk] >= 0) {
+            older[newer[chunk]] = older[chunk];
+        } else {
+            newest = older[chunk];
+        }
+        if (older[chunk] >= 0) {
+            newer[older[chunk]] = newer[chunk];
+        } else {
+            oldest = newer[chunk];
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the number of dense chunks that could be evicted, which is at most the limit given on creation.
+     *
+     * @return The number of evictable chunks in memory.
+     */
+    public int getLoadedChunkCount() {
+        return loadedCount;
+    }
+
+    public long getLoads() {
+        return loads;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+}
@@ -48,6 +48,18 @@ public VictoryScreen(MazeRunnerGame game) {
         backgroundImage = new Texture(Gdx.files.internal("victory.png"));
 
 
+        //Next level of the playlist
+        if (game.hasNextLevel()) {
+            TextButton nextButton = new TextButton("Next level", game.getSkin());
+            table.add(nextButton).width(300).row();
+            nextButton.addListener(new ChangeListener() {
+                @Override
+                public void changed(ChangeEvent event, Actor actor) {
+                    game.loadNextLevel();
+                }
+            });
+        }
+
         //Select map
         TextButton SelectMap = new TextButton("Select map", game.getSkin());
         table.add(SelectMap).width(300).row();
@@ -57,7 +69,7 @@ public void changed(ChangeEvent event, Actor actor) {
                 var fileChooserConfig = new NativeFileChooserConfiguration();
                 fileChooserConfig.title = "Pick a maze file"; // Title of the window that will be opened
                 fileChooserConfig.intent = NativeFileChooserIntent.OPEN; // We want to open a file
-                fileChooserConfig.nameFilter = (file, name) -> name.endsWith("properties"); // Only accept .properties files
+                fileChooserConfig.nameFilter = (file, name) -> name.endsWith("properties") || name.endsWith(BinaryMazeFile.EXTENSION); // Only accept maze files
                 fileChooserConfig.directory = Gdx.files.absolute(System.getProperty("user.home")); // Open at the user's home directory
                 game.getFileChooser().chooseFile(fileChooserConfig, new NativeFileChooserCallback() {
                     @Override
@@ -0,0 +1,194 @@
+package de.tum.cit.ase.maze;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores which tiles of a maze enemies can walk on, one bit per tile.
+ * A maze owns exactly one grid and keeps it up to date whenever a tile changes,
+ * so every pathfinder of the level can share it instead of copying the layout.
+ * Tiles are addressed by their index y * width + x.
+ */
+public class WalkabilityGrid {
+    private final int width;
+    private final int height;
+    private final long[] bits;
+    private long version; // Incremented whenever a tile changes its walkability
+    private final List<WalkabilityListener> listeners = new ArrayList<>();
+
+    /**
+     * Creates a grid in which no tile is walkable.
+     *
+     * @param width The width of the maze in tiles.
+     * @param height The height of the maze in tiles.
+     */
+    public WalkabilityGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.bits = new long[(width * height + 63) >>> 6];
+    }
+
+    /**
+     * Creates an independent copy of this grid with the same version and no listeners.
+     * Background pathfinding searches such a snapshot, so the game can keep changing the maze meanwhile.
+     * The snapshot must not be modified.
+     *
+     * @return The copy of the grid.
+     */
+    public WalkabilityGrid snapshot() {
+        WalkabilityGrid copy = new WalkabilityGrid(width, height);
+        System.arraycopy(bits, 0, copy.bits, 0, bits.length);
+        copy.version = version;
+        return copy;
+    }
+
+    /**
+     * Creates a grid from the tiles of a maze. Both use the same row-major order, so the bits are set in one pass.
+     *
+     * @param tiles The tiles of the maze.
+     * @return The walkability grid of the tiles.
+     */
+    public static WalkabilityGrid fromTiles(TileStore tiles) {
+        int width = tiles.getWidth();
+        int height = tiles.getHeight();
+        WalkabilityGrid grid = new WalkabilityGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (isWalkableType(tiles.get(x, y))) {
+                    int index = y * width + x;
+                    grid.bits[index >>> 6] |= 1L << index;
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Gets the number of bytes {@link #writeTo(ByteBuffer)} writes.
+     *
+     * @return The size of the bits in bytes.
+     */
+    public int getSerializedSize() {
+        return bits.length * 8;
+    }
+
+    /**
+     * Writes the bits of the grid, for example to the level cache.
+     *
+     * @param out The buffer to write to; its position is advanced.
+     */
+    public void writeTo(ByteBuffer out) {
+        out.asLongBuffer().put(bits);
+        out.position(out.position() + bits.length * 8);
+    }
+
+    /**
+     * Reads a grid written by {@link #writeTo(ByteBuffer)}.
+     *
+     * @param width The width of the maze in tiles.
+     * @param height The height of the maze in tiles.
+     * @param in The buffer to read from; its position is advanced.
+     * @return The walkability grid.
+     */
+    public static WalkabilityGrid readFrom(int width, int height, ByteBuffer in) {
+        WalkabilityGrid grid = new WalkabilityGrid(width, height);
+        in.asLongBuffer().get(grid.bits);
+        in.position(in.position() + grid.bits.length * 8);
+        return grid;
+    }
+
+    /**
+     * Determines whether enemies can walk on tiles of the given type. Only plain floor and the floor
+     * enemies spawn on are walkable.
+     *
+     * @param type The type of the tile.
+     * @return true if the tile type is walkable, false otherwise.
+     */
+    public static boolean isWalkableType(int type) {
+        return type == -1 || type == 4;
+    }
+
+    /**
+     * Checks whether the tile at the given coordinates is walkable.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return true if the tile is inside the grid and walkable, false otherwise.
+     */
+    public boolean isWalkable(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && isWalkable(y * width + x);
+    }
+
+    /**
+     * Checks whether the tile with the given index is walkable. The index is not bounds checked.
+     *
+     * @param index The index y * width + x of the tile.
+     * @return true if the tile is walkable, false otherwise.
+     */
+    public boolean isWalkable(int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Marks the tile at the given coordinates as walkable or blocked. Coordinates outside the grid are ignored.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @param walkable Whether the tile is walkable.
+     */
+    public void setWalkable(int x, int y, boolean walkable) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return;
+        }
+        int index = y * width + x;
+        if (isWalkable(index) == walkable) {
+            return;
+        }
+        if (walkable) {
+            bits[index >>> 6] |= 1L << index;
+        } else {
+            bits[index >>> 6] &= ~(1L << index);
+        }
+        version++;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).walkabilityChanged(x, y, walkable);
+        }
+    }
+
+    /**
+     * Registers a listener that is notified whenever a tile changes its walkability.
+     *
+     * @param listener The listener to add.
+     */
+    public void addListener(WalkabilityListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeListener(WalkabilityListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets the version of the grid. Consumers that derive data from the grid can compare versions
+     * to find out whether the walkability of any tile changed since they last looked.
+     *
+     * @return The number of walkability changes since the grid was created.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,15 @@
+package de.tum.cit.ase.maze;
+
+/**
+ * Interface for data derived from a walkability grid that has to be updated when a tile changes.
+ */
+public interface WalkabilityListener {
+    /**
+     * Called after a tile of the grid became walkable or blocked.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @param walkable Whether the tile is walkable now.
+     */
+    void walkabilityChanged(int x, int y, boolean walkable);
+}